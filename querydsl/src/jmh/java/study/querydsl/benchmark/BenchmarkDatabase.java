@@ -0,0 +1,57 @@
+package study.querydsl.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.QuerydslApplication;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크용 스프링 컨텍스트를 띄우고, H2 에 회원/팀 데이터를 채운다.
+ * 회원 id 는 1..memberCount, 팀 id 는 1..teamCount 로 고정해서 넣는다. (커서 위치를 계산하기 쉽도록)
+ * 회원 i 의 팀은 i % teamCount 번째 팀이고, 나이는 (i / teamCount) % 100 이다. (비정규화한 team_name 도 함께 채운다)
+ * 나이를 팀과 따로 돌려야 팀마다 0..99 살이 고르게 들어간다. (i % 100 이면 teamCount=100 일 때 팀 하나가 모두 같은 나이가 된다)
+ */
+class BenchmarkDatabase {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    static ConfigurableApplicationContext start(int memberCount, int teamCount) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=bench", // local 프로필의 InitMember 가 돌지 않도록
+                        "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                        "--logging.level.org.hibernate.SQL=warn",
+                        "--decorator.datasource.p6spy.enable-logging=false");
+
+        seed(context.getBean(JdbcTemplate.class), memberCount, teamCount);
+        return context;
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate, int memberCount, int teamCount) {
+        List<Object[]> teams = new ArrayList<>(teamCount);
+        for (int i = 0; i < teamCount; i++) {
+            teams.add(new Object[]{(long) i + 1, "team" + i});
+        }
+        jdbcTemplate.batchUpdate("insert into team (id, name, member_count, age_sum) values (?, ?, 0, 0)", teams);
+
+        List<Object[]> members = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < memberCount; i++) {
+            members.add(new Object[]{(long) i + 1, "member" + i, (i / teamCount) % 100, (long) (i % teamCount) + 1, "team" + (i % teamCount)});
+            if (members.size() == BATCH_SIZE || i == memberCount - 1) {
+                jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id, team_name) values (?, ?, ?, ?, ?)", members);
+                members.clear();
+            }
+        }
+        // 직접 넣었으므로 팀 집계는 한 번에 다시 구한다.
+        jdbcTemplate.update("update team t set"
+                + " member_count = (select count(*) from member m where m.team_id = t.id),"
+                + " age_sum = (select coalesce(sum(m.age), 0) from member m where m.team_id = t.id),"
+                + " min_age = (select min(m.age) from member m where m.team_id = t.id),"
+                + " max_age = (select max(m.age) from member m where m.team_id = t.id)");
+        jdbcTemplate.execute("analyze");
+    }
+}
@@ -0,0 +1,108 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberCursorPage;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 페이징 전략 비교: searchPageSimple / searchPageComplex / searchPageCountQuery / searchPageDeferredJoin / searchPageWithTemplate / searchPageWindow / searchPageDenormalized / searchByCursor
+ * 페이지 깊이(pageNumber)에 따라 offset 방식과 커서 방식의 비용이 어떻게 달라지는지 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemberPagingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"100000"})
+    public int memberCount;
+
+    @Param({"100"})
+    public int teamCount;
+
+    @Param({"ALL", "TEAM", "TEAM_AGE"})
+    public Selectivity selectivity;
+
+    @Param({"0", "10", "1000"})
+    public int pageNumber;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private MemberSearchCondition condition;
+    private PageRequest pageRequest;
+    private String cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDatabase.start(memberCount, teamCount);
+        memberRepository = context.getBean(MemberRepository.class);
+        condition = selectivity.condition(memberCount);
+        pageRequest = PageRequest.of(pageNumber, PAGE_SIZE);
+
+        // 같은 깊이의 페이지를 커서로 조회할 수 있도록, 직전 페이지의 마지막 id 를 커서로 만든다.
+        if (pageNumber > 0) {
+            Page<MemberTeamDto> previous = memberRepository.searchPageComplex(condition, PageRequest.of(pageNumber - 1, PAGE_SIZE));
+            if (previous.hasContent()) {
+                Long lastMemberId = previous.getContent().get(previous.getNumberOfElements() - 1).getMemberId();
+                cursor = MemberCursorPage.encodeCursor(lastMemberId);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageSimple() {
+        return memberRepository.searchPageSimple(condition, pageRequest);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageComplex() {
+        return memberRepository.searchPageComplex(condition, pageRequest);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageCountQuery() {
+        return memberRepository.searchPageCountQuery(condition, pageRequest);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageDeferredJoin() {
+        return memberRepository.searchPageDeferredJoin(condition, pageRequest);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageWindow() {
+        return memberRepository.searchPageWindow(condition, pageRequest);
+    }
+
+    // searchPageComplex 와 같은 모양이지만 team 조인 없이 member.teamName 으로 거른다.
+    @Benchmark
+    public Page<MemberTeamDto> searchPageDenormalized() {
+        return memberRepository.searchPageDenormalized(condition, pageRequest);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageWithTemplate() {
+        return memberRepository.searchPageWithTemplate(condition, pageRequest);
+    }
+
+    @Benchmark
+    public MemberCursorPage searchByCursor() {
+        return memberRepository.searchByCursor(condition, cursor, PAGE_SIZE);
+    }
+}
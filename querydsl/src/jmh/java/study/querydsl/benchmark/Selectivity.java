@@ -0,0 +1,31 @@
+package study.querydsl.benchmark;
+
+import study.querydsl.dto.MemberSearchCondition;
+
+/**
+ * 검색 조건의 선택도. 넓은 조건부터 좁은 조건 순서
+ * BenchmarkDatabase 의 데이터 기준 (팀마다 회원 memberCount / teamCount 명, 팀 안에서 나이 0..99 가 고르게 분포)
+ */
+public enum Selectivity {
+
+    ALL,        // 조건 없음, 전체 회원
+    TEAM,       // 팀 하나, 약 1/teamCount
+    TEAM_AGE,   // 팀 하나 + 나이 10살 구간(20~29), 약 1/(teamCount * 10). 예: 10만 명, 100팀이면 100명
+    USERNAME;   // 회원 한 명
+
+    MemberSearchCondition condition(int memberCount) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        switch (this) {
+            case TEAM -> condition.setTeamName("team0");
+            case TEAM_AGE -> {
+                condition.setTeamName("team0");
+                condition.setAgeGoe(20);
+                condition.setAgeLoe(29);
+            }
+            case USERNAME -> condition.setUsername("member" + memberCount / 2);
+            default -> {
+            }
+        }
+        return condition;
+    }
+}
@@ -28,6 +28,8 @@ public class QMember extends EntityPathBase<Member> {
 
     public final QTeam team;
 
+    public final StringPath teamName = createString("teamName");
+
     public final StringPath username = createString("username");
 
     public QMember(String variable) {
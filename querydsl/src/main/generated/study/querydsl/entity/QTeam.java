@@ -20,10 +20,18 @@ public class QTeam extends EntityPathBase<Team> {
 
     public static final QTeam team = new QTeam("team");
 
+    public final NumberPath<Long> ageSum = createNumber("ageSum", Long.class);
+
     public final NumberPath<Long> id = createNumber("id", Long.class);
 
+    public final NumberPath<Integer> maxAge = createNumber("maxAge", Integer.class);
+
+    public final NumberPath<Long> memberCount = createNumber("memberCount", Long.class);
+
     public final ListPath<Member, QMember> members = this.<Member, QMember>createList("members", Member.class, QMember.class, PathInits.DIRECT2);
 
+    public final NumberPath<Integer> minAge = createNumber("minAge", Integer.class);
+
     public final StringPath name = createString("name");
 
     public QTeam(String variable) {
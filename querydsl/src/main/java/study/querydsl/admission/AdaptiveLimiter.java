@@ -0,0 +1,141 @@
+package study.querydsl.admission;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 크기가 제한된 대기열을 가진 동시 실행 제한
+ * 제한값(limit)은 DB 지연 시간에 따라 minLimit ~ maxLimit 사이에서 움직인다.
+ * - longRtt : 천천히 따라가는 평소 지연 시간, shortRtt : 최근 지연 시간
+ * - 최근 지연이 평소보다 길어지면 그 비율(longRtt / shortRtt, 0.5 ~ 1)만큼 제한을 줄이고,
+ *   비슷하면 sqrt(limit) 만큼의 여유를 두고 늘린다.
+ */
+public class AdaptiveLimiter {
+
+    public enum Rejection {
+        QUEUE_FULL, TIMEOUT
+    }
+
+    private static final double SHORT_ALPHA = 0.2;
+    private static final double LONG_ALPHA = 0.01;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private double shortRtt;
+    private double longRtt;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder rejectedQueueFull = new LongAdder();
+    private final LongAdder rejectedTimeout = new LongAdder();
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, int queueSize) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.queueSize = queueSize;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * 자리가 나면 null, 거절되면 그 이유를 돌려준다. null 을 받았다면 반드시 release 해야 한다.
+     */
+    public Rejection acquire(long maxWaitMillis) throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                accepted.increment();
+                return null;
+            }
+            if (waiting >= queueSize) {
+                rejectedQueueFull.increment();
+                return Rejection.QUEUE_FULL;
+            }
+
+            queued.increment();
+            waiting++;
+            try {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        rejectedTimeout.increment();
+                        return Rejection.TIMEOUT;
+                    }
+                    remaining = available.awaitNanos(remaining);
+                }
+            } finally {
+                waiting--;
+            }
+            inFlight++;
+            accepted.increment();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param dbNanos 이번 실행의 DB 지연 시간, 0 이하면 (DB 를 거치지 않았으면) 제한값을 조정하지 않는다.
+     */
+    public void release(long dbNanos) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (dbNanos > 0) {
+                adjust(dbNanos);
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void adjust(long rtt) {
+        if (longRtt == 0) {
+            shortRtt = rtt;
+            longRtt = rtt;
+            return;
+        }
+        shortRtt = shortRtt * (1 - SHORT_ALPHA) + rtt * SHORT_ALPHA;
+        longRtt = longRtt * (1 - LONG_ALPHA) + rtt * LONG_ALPHA;
+        // 지연이 오래 높게 유지되면 평소 값도 끌려 올라가므로, 평소 값이 최근 값의 두 배를 넘지 않게 당겨서 회복을 빠르게 한다.
+        if (longRtt > shortRtt * 2) {
+            longRtt = shortRtt * 2;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, longRtt / shortRtt));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            result.put("limit", (long) limit);
+            result.put("inFlight", (long) inFlight);
+            result.put("waiting", (long) waiting);
+            result.put("shortRttMicros", (long) (shortRtt / 1000));
+            result.put("longRttMicros", (long) (longRtt / 1000));
+        } finally {
+            lock.unlock();
+        }
+        result.put("accepted", accepted.sum());
+        result.put("queued", queued.sum());
+        result.put("rejectedQueueFull", rejectedQueueFull.sum());
+        result.put("rejectedTimeout", rejectedTimeout.sum());
+        return result;
+    }
+}
@@ -0,0 +1,16 @@
+package study.querydsl.admission;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 컨트롤러 메서드에 붙이면 해당 묶음의 동시 실행 제한을 통과해야 실행된다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Admission {
+
+    AdmissionGroup value();
+}
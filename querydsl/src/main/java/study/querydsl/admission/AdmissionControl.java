@@ -0,0 +1,63 @@
+package study.querydsl.admission;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 엔드포인트 묶음별 동시 실행 제한
+ * 비싼 count 페이징이 커넥션 풀을 다 차지해서 싼 조회까지 굶지 않도록, COUNT 와 CONTENT 의 제한을 따로 둔다.
+ * LONG_RUNNING 은 한 번에 수 초 이상 걸려서 지연 시간으로 제한을 조정할 수 없으므로 고정값을 쓰고,
+ * 자리가 없으면 기다리지 않고 바로 거절한다. (기본 대기열 0)
+ */
+@Component
+public class AdmissionControl {
+
+    private final boolean enabled;
+    private final long maxWaitMillis;
+    private final Map<AdmissionGroup, AdaptiveLimiter> limiters = new EnumMap<>(AdmissionGroup.class);
+
+    public AdmissionControl(@Value("${admission.enabled:true}") boolean enabled,
+                            @Value("${admission.max-wait-ms:200}") long maxWaitMillis,
+                            @Value("${admission.count.initial-limit:4}") int countInitialLimit,
+                            @Value("${admission.count.min-limit:1}") int countMinLimit,
+                            @Value("${admission.count.max-limit:8}") int countMaxLimit,
+                            @Value("${admission.count.queue-size:16}") int countQueueSize,
+                            @Value("${admission.content.initial-limit:16}") int contentInitialLimit,
+                            @Value("${admission.content.min-limit:2}") int contentMinLimit,
+                            @Value("${admission.content.max-limit:32}") int contentMaxLimit,
+                            @Value("${admission.content.queue-size:64}") int contentQueueSize,
+                            @Value("${admission.long-running.limit:2}") int longRunningLimit,
+                            @Value("${admission.long-running.queue-size:0}") int longRunningQueueSize) {
+        this.enabled = enabled;
+        this.maxWaitMillis = maxWaitMillis;
+        limiters.put(AdmissionGroup.COUNT,
+                new AdaptiveLimiter(countInitialLimit, countMinLimit, countMaxLimit, countQueueSize));
+        limiters.put(AdmissionGroup.CONTENT,
+                new AdaptiveLimiter(contentInitialLimit, contentMinLimit, contentMaxLimit, contentQueueSize));
+        limiters.put(AdmissionGroup.LONG_RUNNING,
+                new AdaptiveLimiter(longRunningLimit, longRunningLimit, longRunningLimit, longRunningQueueSize));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public AdaptiveLimiter.Rejection acquire(AdmissionGroup group) throws InterruptedException {
+        return limiters.get(group).acquire(maxWaitMillis);
+    }
+
+    public void release(AdmissionGroup group, long dbNanos) {
+        limiters.get(group).release(dbNanos);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        limiters.forEach((group, limiter) -> result.put(group.name(), limiter.stats()));
+        return result;
+    }
+}
@@ -0,0 +1,11 @@
+package study.querydsl.admission;
+
+/**
+ * 동시 실행 수를 따로 제한하는 엔드포인트 묶음
+ * COUNT : count 쿼리를 함께 실행하는 페이징 (비싸다)
+ * CONTENT : 컨텐츠만 조회 (싸다)
+ * LONG_RUNNING : 스트리밍, 대량 적재/벌크 연산처럼 커넥션을 오래 잡는 작업 (고정된 낮은 제한, 대기하지 않음)
+ */
+public enum AdmissionGroup {
+    COUNT, CONTENT, LONG_RUNNING
+}
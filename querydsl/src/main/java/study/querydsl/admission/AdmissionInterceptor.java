@@ -0,0 +1,75 @@
+package study.querydsl.admission;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import study.querydsl.metrics.SqlMetrics;
+
+import java.io.IOException;
+
+/**
+ * @Admission 이 붙은 컨트롤러 메서드 앞에서 동시 실행 제한을 건다.
+ * - 대기열까지 가득 차 있으면 바로 429 (Too Many Requests)
+ * - 대기열에서 admission.max-wait-ms 안에 자리가 나지 않으면 503 (Service Unavailable)
+ * 둘 다 Retry-After 를 붙인다. 요청이 끝나면 그 요청의 DB 시간으로 제한값을 조정한다.
+ * 비동기 응답(스트리밍)은 요청 스레드를 떠난 뒤에도 DB 를 쓰므로, 비동기 디스패치가 끝날 때(afterCompletion) 자리를 돌려준다.
+ * SqlMetricsInterceptor 보다 뒤에 등록해야 끝날 때 요청의 DB 시간을 읽을 수 있다.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String ADMITTED = AdmissionInterceptor.class.getName() + ".ADMITTED";
+
+    private final AdmissionControl admissionControl;
+    private final SqlMetrics sqlMetrics;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!admissionControl.isEnabled() || request.getDispatcherType() == DispatcherType.ASYNC
+                || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        Admission admission = handlerMethod.getMethodAnnotation(Admission.class);
+        if (admission == null) {
+            return true;
+        }
+
+        AdaptiveLimiter.Rejection rejection;
+        try {
+            rejection = admissionControl.acquire(admission.value());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejection = AdaptiveLimiter.Rejection.TIMEOUT;
+        }
+        if (rejection != null) {
+            HttpStatus status = rejection == AdaptiveLimiter.Rejection.QUEUE_FULL
+                    ? HttpStatus.TOO_MANY_REQUESTS
+                    : HttpStatus.SERVICE_UNAVAILABLE;
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(status.value(), "요청이 많아 처리할 수 없습니다. (" + admission.value() + ")");
+            return false;
+        }
+        request.setAttribute(ADMITTED, admission.value());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    private void release(HttpServletRequest request) {
+        Object group = request.getAttribute(ADMITTED);
+        if (group instanceof AdmissionGroup admitted) {
+            request.removeAttribute(ADMITTED);
+            admissionControl.release(admitted, sqlMetrics.currentRequestDbNanos());
+        }
+    }
+}
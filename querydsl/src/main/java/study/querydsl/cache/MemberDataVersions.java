@@ -0,0 +1,125 @@
+package study.querydsl.cache;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.event.BulkChangedEvent;
+import study.querydsl.event.ChangeType;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.event.MemberState;
+import study.querydsl.event.TeamChangedEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 회원 검색 결과의 데이터 버전 (ETag 용)
+ * - global : 모든 변경마다 올라간다. 팀 조건이 없는 검색의 버전
+ * - 팀 이름별 : 그 팀에 속했거나 속하게 된 회원, 그 팀 자체가 바뀌면 올라간다. 팀 조건이 있는 검색의 버전
+ * - unscoped : 어느 팀인지 알 수 없는 변경(팀이 로딩되지 않은 회원, 벌크 연산)이면 올라간다. 모든 팀 검색에 영향을 준다.
+ * 검색 조건이 팀 이름이므로 팀 이름 기준으로 센다. 재시작하면 카운터가 0 부터 다시 시작하므로 기동 시각(epoch)도 버전에 넣는다.
+ */
+@Component
+public class MemberDataVersions {
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong global = new AtomicLong();
+    private final AtomicLong unscoped = new AtomicLong();
+    private final Map<String, AtomicLong> byTeamName = new ConcurrentHashMap<>();
+
+    private final LongAdder notModified = new LongAdder();
+
+    /**
+     * 검색 결과의 ETag. 버전과 정규화한 검색 조건(+ 페이지)으로 만든다. 조회 전에 구해야 한다.
+     */
+    public String etag(String kind, MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchKey key = MemberSearchKey.of(kind, condition, pageable);
+        String digest = DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8));
+        return "W/\"" + version(key.teamName()) + "-" + digest + "\"";
+    }
+
+    String version(String teamName) {
+        if (teamName == null) {
+            return epoch + "." + global.get();
+        }
+        AtomicLong team = byTeamName.get(teamName);
+        return epoch + "." + unscoped.get() + "." + (team == null ? 0 : team.get());
+    }
+
+    // 모든 변경마다 올라가는 버전. 같은 값이면 그 사이에 커밋된 변경이 없다.
+    public long globalVersion() {
+        return global.get();
+    }
+
+    public void recordNotModified() {
+        notModified.increment();
+    }
+
+    @EventListener
+    public void onMemberChanged(MemberChangedEvent event) {
+        global.incrementAndGet();
+        if (event.type() == ChangeType.UPDATE && event.before() == null) {
+            unscoped.incrementAndGet();
+            return;
+        }
+        bump(event.before());
+        bump(event.after());
+    }
+
+    private void bump(MemberState state) {
+        if (state == null || state.teamId() == null) {
+            return;
+        }
+        if (state.teamNameUnknown()) {
+            unscoped.incrementAndGet();
+        } else {
+            bumpTeam(state.teamName());
+        }
+    }
+
+    @EventListener
+    public void onTeamChanged(TeamChangedEvent event) {
+        global.incrementAndGet();
+        bumpTeam(event.beforeName());
+        bumpTeam(event.afterName());
+    }
+
+    private void bumpTeam(String teamName) {
+        if (teamName != null) {
+            byTeamName.computeIfAbsent(teamName, name -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    // 벌크 연산은 발행 즉시 한 번, 커밋 이후에 한 번 더 올린다.
+    // 커밋 전에 발급된 ETag 가 커밋된 데이터로 304 를 받는 일이 없도록 하기 위함이다.
+    @EventListener
+    public void onBulkChanging(BulkChangedEvent event) {
+        bumpAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkChanged(BulkChangedEvent event) {
+        bumpAll();
+    }
+
+    private void bumpAll() {
+        global.incrementAndGet();
+        unscoped.incrementAndGet();
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("global", global.get());
+        result.put("unscoped", unscoped.get());
+        result.put("teams", (long) byTeamName.size());
+        result.put("notModified", notModified.sum());
+        return result;
+    }
+}
@@ -0,0 +1,123 @@
+package study.querydsl.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.event.BulkChangedEvent;
+import study.querydsl.event.ChangeType;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.event.TeamChangedEvent;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 회원 검색 결과 캐시 (기본값은 꺼짐, member.search.cache.enabled=true 로 켠다)
+ * 크기 제한은 결과 행 수 기준의 가중치(max-weight)로, 만료는 TTL 로 한다.
+ * 회원/팀 변경이 커밋되면 그 변경이 결과에 영향을 줄 수 있는 항목만 골라서 지운다.
+ */
+@Component
+public class MemberSearchCache {
+
+    private final boolean enabled;
+    private final Cache<MemberSearchKey, Object> cache;
+
+    // 무효화 세대. 조회를 시작한 뒤 무효화가 일어났다면, 그 조회 결과는 이미 낡았을 수 있으므로 캐시에 넣지 않는다.
+    private final AtomicLong generation = new AtomicLong();
+
+    public MemberSearchCache(@Value("${member.search.cache.enabled:false}") boolean enabled,
+                             @Value("${member.search.cache.max-weight:100000}") long maxWeight,
+                             @Value("${member.search.cache.ttl-seconds:30}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((MemberSearchKey key, Object value) -> weigh(value))
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String kind, MemberSearchCondition condition, Pageable pageable, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        MemberSearchKey key = MemberSearchKey.of(kind, condition, pageable);
+        Object cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+
+        long startGeneration = generation.get();
+        T value = loader.get();
+        if (value != null && generation.get() == startGeneration) {
+            cache.put(key, value);
+        }
+        return value;
+    }
+
+    @EventListener
+    public void onMemberChanged(MemberChangedEvent event) {
+        if (event.type() == ChangeType.UPDATE && event.before() == null) {
+            invalidateAll();
+            return;
+        }
+        invalidateIf(key -> key.mayContain(event.before()) || key.mayContain(event.after()));
+    }
+
+    @EventListener
+    public void onTeamChanged(TeamChangedEvent event) {
+        invalidateIf(key -> key.dependsOnTeam(event.beforeName()) || key.dependsOnTeam(event.afterName()));
+    }
+
+    // 벌크 연산은 트랜잭션 안에서 발행되므로 커밋 이후에 지운다.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkChanged(BulkChangedEvent event) {
+        invalidateAll();
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private void invalidateIf(Predicate<MemberSearchKey> predicate) {
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(predicate);
+    }
+
+    private static int weigh(Object value) {
+        if (value instanceof Page<?> page) {
+            return page.getNumberOfElements() + 1;
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.size() + 1;
+        }
+        return 1;
+    }
+
+    public Map<String, Long> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("enabled", enabled ? 1L : 0L);
+        result.put("size", cache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("evictions", stats.evictionCount());
+        result.put("evictionWeight", stats.evictionWeight());
+        result.put("invalidations", generation.get());
+        return result;
+    }
+}
@@ -0,0 +1,134 @@
+package study.querydsl.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 같은 검색이 동시에 여러 번 들어오면 한 번만 실행하고 결과를 나눠 갖는다. (single-flight, 기본값은 꺼짐, member.search.coalesce.enabled=true 로 켠다)
+ * 먼저 온 요청(leader)이 직접 조회하고, 그동안 들어온 같은 키의 요청은 그 결과를 기다린다.
+ * - leader 가 시작한 뒤에 커밋된 변경이 있으면(데이터 버전이 다르면) 합류하지 않고 새 leader 가 된다. (자기가 쓴 값을 못 읽는 일 방지)
+ * - 기다리는 시간은 max-wait-millis 까지이고, 넘으면 직접 조회한다. (leader 쿼리가 멈춰도 같이 멈추지 않는다)
+ * 실행이 끝나면 바로 키를 지우므로 결과를 보관하지 않는다. (보관은 MemberSearchCache 의 몫)
+ */
+@Component
+public class MemberSearchCoalescer {
+
+    // 실행 중인 조회와, 그 조회가 시작될 때의 데이터 버전
+    private record Flight(long version, CompletableFuture<Object> result) {
+    }
+
+    // 기다리다 시간이 지났음을 나타낸다. (조회 결과로 null 이 올 수도 있으므로 따로 둔다)
+    private static final Object TIMED_OUT = new Object();
+
+    private final MemberDataVersions memberDataVersions;
+    private final boolean enabled;
+    private final long maxWaitMillis;
+    private final Map<MemberSearchKey, Flight> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder staleLeaders = new LongAdder();
+    private final LongAdder waitTimeouts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public MemberSearchCoalescer(MemberDataVersions memberDataVersions,
+                                 @Value("${member.search.coalesce.enabled:false}") boolean enabled,
+                                 @Value("${member.search.coalesce.max-wait-millis:1000}") long maxWaitMillis) {
+        this.memberDataVersions = memberDataVersions;
+        this.enabled = enabled;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String kind, MemberSearchCondition condition, Pageable pageable, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        requests.increment();
+
+        MemberSearchKey key = MemberSearchKey.of(kind, condition, pageable);
+        // 도착 시점의 버전. 이 요청 전에 커밋된 변경(자기가 쓴 것 포함)은 모두 이 버전에 들어 있다.
+        Flight mine = new Flight(memberDataVersions.globalVersion(), new CompletableFuture<>());
+        Flight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            if (running.version() >= mine.version()) {
+                coalesced.increment();
+                Object shared = await(running);
+                if (shared != TIMED_OUT) {
+                    return (T) shared;
+                }
+                waitTimeouts.increment();
+                return executeAlone(loader);
+            }
+            // leader 가 그 사이 커밋을 못 봤을 수 있으므로 합류하지 않는다. 뒤에 오는 요청은 새 leader 에 합류한다.
+            staleLeaders.increment();
+            if (!inFlight.replace(key, running, mine)) {
+                return executeAlone(loader);
+            }
+        }
+
+        executions.increment();
+        try {
+            T value = loader.get();
+            mine.result().complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            failures.increment();
+            mine.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private <T> T executeAlone(Supplier<T> loader) {
+        executions.increment();
+        return loader.get();
+    }
+
+    // leader 의 예외는 기다리던 요청에도 그대로 던진다.
+    private Object await(Flight running) {
+        try {
+            return running.result().get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return TIMED_OUT;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("검색 결과를 기다리다 인터럽트되었습니다.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("enabled", enabled ? 1L : 0L);
+        result.put("requests", requests.sum());
+        result.put("executions", executions.sum());
+        result.put("coalesced", coalesced.sum());
+        result.put("staleLeaders", staleLeaders.sum());
+        result.put("waitTimeouts", waitTimeouts.sum());
+        result.put("failures", failures.sum());
+        result.put("inFlight", (long) inFlight.size());
+        return result;
+    }
+}
@@ -0,0 +1,52 @@
+package study.querydsl.cache;
+
+import org.springframework.data.domain.Pageable;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.event.MemberState;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 검색 결과 캐시 키
+ * 조건은 정규화해서 복사해 둔다. (빈 문자열 == 조건 없음, MemberSearchCondition 은 가변 객체이므로 그대로 쓰지 않는다)
+ */
+public record MemberSearchKey(String kind, String username, String teamName, Integer ageGoe, Integer ageLoe, Pageable pageable) {
+
+    public static MemberSearchKey of(String kind, MemberSearchCondition condition, Pageable pageable) {
+        return new MemberSearchKey(kind,
+                hasText(condition.getUsername()) ? condition.getUsername() : null,
+                hasText(condition.getTeamName()) ? condition.getTeamName() : null,
+                condition.getAgeGoe(),
+                condition.getAgeLoe(),
+                pageable);
+    }
+
+    /**
+     * 해당 상태의 회원이 이 검색 결과에 포함될 수 있는지. 팀 이름을 모르면 포함될 수 있다고 본다.
+     */
+    public boolean mayContain(MemberState state) {
+        if (state == null) {
+            return false;
+        }
+        if (username != null && !username.equals(state.username())) {
+            return false;
+        }
+        if (ageGoe != null && state.age() < ageGoe) {
+            return false;
+        }
+        if (ageLoe != null && state.age() > ageLoe) {
+            return false;
+        }
+        if (teamName != null) {
+            return state.teamNameUnknown() || teamName.equals(state.teamName());
+        }
+        return true;
+    }
+
+    /**
+     * 해당 이름의 팀이 바뀌었을 때 영향을 받는지. 팀 조건이 없는 검색은 결과에 팀 이름을 담고 있으므로 항상 영향을 받는다.
+     */
+    public boolean dependsOnTeam(String name) {
+        return teamName == null || teamName.equals(name);
+    }
+}
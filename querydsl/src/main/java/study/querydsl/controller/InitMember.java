@@ -1,14 +1,10 @@
 package study.querydsl.controller;
 
 import jakarta.annotation.PostConstruct;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
-import study.querydsl.entity.Member;
-import study.querydsl.entity.Team;
 
 @Profile("local")
 @Component
@@ -29,23 +25,23 @@ public class InitMember {
     }
 
     // 시작할 때 db에 데이터를 다 넣는다.
+    // 기본값은 기존과 같은 팀 2개(teamA, teamB), 회원 100명. seed.* 설정으로 수백만 건까지 늘릴 수 있다.
     @Component
+    @RequiredArgsConstructor
     static class InitMemberService {
-        @PersistenceContext
-        private EntityManager em;
 
-        @Transactional
-        public void init() {
-            Team teamA = new Team("teamA");
-            Team teamB = new Team("teamB");
-            em.persist(teamA);
-            em.persist(teamB);
+        private final MemberDataSeeder memberDataSeeder;
 
-            for (int i = 0; i < 100; i++) {
-                Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-                em.persist(new Member("member" + i, i, selectedTeam));
-            }
+        @Value("${seed.team-count:2}")
+        private int teamCount;
+        @Value("${seed.member-count:100}")
+        private int memberCount;
+        @Value("${seed.skew:0}")
+        private double skew;
 
+        // 트랜잭션은 seeder 가 chunk 단위로 나눠서 연다.
+        public void init() {
+            memberDataSeeder.seed(teamCount, memberCount, skew);
         }
     }
 }
@@ -0,0 +1,196 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.BulkIngestException;
+import study.querydsl.dto.MemberBulkRow;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.BulkChangedEvent;
+import study.querydsl.event.EntityChangeEventBridge;
+import study.querydsl.metrics.SqlMetrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 회원 대량 적재 (POST /members/bulk)
+ * - 요청 본문의 JSON 배열을 한 건씩 읽으므로 전체를 힙에 올리지 않는다.
+ * - chunkSize 건마다 트랜잭션을 끊고 flush() / clear() 한다. insert 는 hibernate.jdbc.batch_size 로 묶이고, id 는 pooled 시퀀스에서 받는다.
+ * - 팀 이름 -> id 는 크기가 제한된 LRU 캐시로 풀고, 없는 팀은 만든다.
+ * - 행마다 엔티티 이벤트를 내지 않고 청크마다 BulkChangedEvent 를 한 번 발행한다.
+ * 청크 단위로 커밋되므로, 중간에 실패하면 앞선 청크까지는 저장되어 있다.
+ */
+@Slf4j
+@Component
+public class MemberBulkIngester {
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityChangeEventBridge entityChangeEventBridge;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SqlMetrics sqlMetrics;
+    private final int chunkSize;
+    private final int teamCacheSize;
+
+    public MemberBulkIngester(EntityManager em,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              EntityChangeEventBridge entityChangeEventBridge,
+                              ApplicationEventPublisher eventPublisher,
+                              SqlMetrics sqlMetrics,
+                              @Value("${bulk.chunk-size:5000}") int chunkSize,
+                              @Value("${bulk.team-cache-size:10000}") int teamCacheSize) {
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityChangeEventBridge = entityChangeEventBridge;
+        this.eventPublisher = eventPublisher;
+        this.sqlMetrics = sqlMetrics;
+        this.chunkSize = chunkSize;
+        this.teamCacheSize = teamCacheSize;
+    }
+
+    public IngestResult ingest(InputStream body) throws IOException {
+        long start = System.nanoTime();
+        TeamIds teamIds = new TeamIds(teamCacheSize);
+        List<MemberBulkRow> chunk = new ArrayList<>(chunkSize);
+        long rows = 0;
+        int chunks = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BulkIngestException("요청 본문은 JSON 배열이어야 합니다.", 0);
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new BulkIngestException((rows + chunk.size() + 1) + "번째 항목이 객체가 아닙니다.", rows);
+                }
+                MemberBulkRow row = objectMapper.readValue(parser, MemberBulkRow.class);
+                if (!hasText(row.username())) {
+                    throw new BulkIngestException((rows + chunk.size() + 1) + "번째 항목에 username 이 없습니다.", rows);
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    rows += insertChunk(chunk, teamIds);
+                    chunks++;
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new BulkIngestException("JSON 을 읽을 수 없습니다: " + e.getOriginalMessage(), rows, e);
+        }
+        if (!chunk.isEmpty()) {
+            rows += insertChunk(chunk, teamIds);
+            chunks++;
+        }
+
+        IngestResult result = new IngestResult(rows, teamIds.created, chunks, System.nanoTime() - start);
+        log.info("bulk ingested {} members ({} new teams) in {} chunks, {}ms ({} rows/sec)",
+                rows, result.teamsCreated(), chunks, result.elapsedMillis(), result.rowsPerSecond());
+        return result;
+    }
+
+    private int insertChunk(List<MemberBulkRow> chunk, TeamIds teamIds) {
+        try {
+            // 청크마다 같은 insert/시퀀스/팀 조회가 반복되는 것은 N+1 이 아니다.
+            sqlMetrics.bulkOperation(() -> entityChangeEventBridge.withoutEntityEvents(() -> transactionTemplate.execute(status -> {
+                for (MemberBulkRow row : chunk) {
+                    Member member = new Member(row.username(), row.age());
+                    if (hasText(row.teamName())) {
+                        // 팀은 프록시로만 참조하고, 이름은 알고 있으므로 팀도 members 컬렉션도 읽지 않는다.
+                        member.changeTeam(em.getReference(Team.class, teamIds.resolve(row.teamName())), row.teamName());
+                    }
+                    em.persist(member);
+                }
+                em.flush();
+                em.clear();
+
+                // 트랜잭션 안에서 발행하므로 캐시/인덱스는 커밋 이후에 반영한다.
+                // 새로 만든 팀은 이름이 바뀐 것이 아니므로 Team 벌크 이벤트(member.teamName 전체 동기화)는 내지 않는다.
+                eventPublisher.publishEvent(new BulkChangedEvent(Member.class));
+                return null;
+            })));
+        } catch (RuntimeException e) {
+            // 롤백된 청크에서 만든 팀 id 가 캐시에 남지 않게 한다.
+            teamIds.clear();
+            throw e;
+        }
+        return chunk.size();
+    }
+
+    /**
+     * 팀 이름 -> 팀 id (LRU)
+     * 이름이 같은 팀이 여럿이면 id 가 가장 작은 팀을 쓴다.
+     */
+    private class TeamIds {
+
+        private final Map<String, Long> cache;
+        private long created;
+
+        TeamIds(int maxSize) {
+            this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        Long resolve(String name) {
+            Long id = cache.get(name);
+            if (id != null) {
+                return id;
+            }
+            id = queryFactory
+                    .select(team.id.min())
+                    .from(team)
+                    .where(team.name.eq(name))
+                    .fetchOne();
+            if (id == null) {
+                Team newTeam = new Team(name);
+                em.persist(newTeam);
+                id = newTeam.getId(); // 시퀀스 전략이라 persist 시점에 id 가 정해진다.
+                created++;
+            }
+            cache.put(name, id);
+            return id;
+        }
+
+        void clear() {
+            cache.clear();
+        }
+    }
+
+    public record IngestResult(long rows, long teamsCreated, int chunks, long elapsedNanos) {
+
+        public long elapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+
+        public long rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows * 1_000_000_000L / elapsedNanos;
+        }
+    }
+}
@@ -1,41 +1,195 @@
 package study.querydsl.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.querydsl.admission.Admission;
+import study.querydsl.admission.AdmissionGroup;
+import study.querydsl.cache.MemberDataVersions;
+import study.querydsl.cache.MemberSearchCache;
+import study.querydsl.cache.MemberSearchCoalescer;
+import study.querydsl.dto.CappedPage;
+import study.querydsl.dto.MemberCursorPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.index.MemberSearchIndex;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int STREAM_FLUSH_INTERVAL = 500;
+
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final ObjectMapper objectMapper;
+    private final MemberSearchCache memberSearchCache;
+    private final MemberSearchIndex memberSearchIndex;
+    private final MemberSearchCoalescer memberSearchCoalescer;
+    private final MemberDataVersions memberDataVersions;
+    private final MemberBulkIngester memberBulkIngester;
+
+    @Value("${member.search.count-cap:10000}")
+    private long countCap;
+
+    @Value("${member.stream.max-fetch-size:5000}")
+    private int maxFetchSize;
 
     @GetMapping("/v1/members")
+    @Admission(AdmissionGroup.CONTENT)
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
-        return memberJpaRepository.search(condition);
+        // 메모리 인덱스가 준비되어 있으면 DB 를 거치지 않는다.
+        return memberSearchIndex.search(condition)
+                .orElseGet(() -> memberSearchCache.get("v1", condition, null,
+                        () -> memberSearchCoalescer.execute("v1", condition, null, () -> memberJpaRepository.search(condition))));
+    }
+
+    // v1 의 스트리밍 버전, 한 줄에 MemberTeamDto 하나씩 (NDJSON)
+    // 결과 전체를 힙에 올리지 않으므로 결과 크기와 상관없이 메모리 사용량이 일정하다.
+    @GetMapping(value = "/v1/members/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Admission(AdmissionGroup.LONG_RUNNING)
+    public ResponseEntity<StreamingResponseBody> streamMemberV1(MemberSearchCondition condition,
+                                                                @RequestParam(defaultValue = "500") int fetchSize) {
+        // fetch size 만큼 드라이버가 행을 버퍼링하므로 상한을 둔다.
+        if (fetchSize < 1 || fetchSize > maxFetchSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "fetchSize 는 1 ~ " + maxFetchSize + " 사이여야 합니다.");
+        }
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream);
+            long[] written = new long[1];
+            memberJpaRepository.searchStream(condition, fetchSize, dto -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(dto));
+                    out.write('\n');
+                    if (++written[0] % STREAM_FLUSH_INTERVAL == 0) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("v2/members")
-    public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageSimple(condition, pageable);
+    @Admission(AdmissionGroup.COUNT)
+    public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable, WebRequest webRequest) {
+        if (notModified("v2", condition, pageable, webRequest)) {
+            return null;
+        }
+        return memberSearchIndex.searchPage(condition, pageable)
+                .orElseGet(() -> memberSearchCache.get("v2", condition, pageable,
+                        () -> memberSearchCoalescer.execute("v2", condition, pageable, () -> memberRepository.searchPageSimple(condition, pageable))));
     }
 
+    // parallel=true 이면 컨텐츠 쿼리와 count 쿼리를 동시에 실행한다.
+    // exactCount=false 이면 전체 개수를 member.search.count-cap 까지만 센다. (응답의 totalApproximate 로 표시)
+    // deferredJoin=true 이면 id 만으로 페이지를 고른 뒤 DTO 를 조회한다. (깊은 offset 페이지용)
+    // denormalized=true 이면 비정규화한 member.teamName 으로 team 조인 없이 조회한다.
     @GetMapping("v3/members")
-    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
+    @Admission(AdmissionGroup.COUNT)
+    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable,
+                                              @RequestParam(defaultValue = "false") boolean parallel,
+                                              @RequestParam(defaultValue = "true") boolean exactCount,
+                                              @RequestParam(defaultValue = "false") boolean deferredJoin,
+                                              @RequestParam(defaultValue = "false") boolean denormalized,
+                                              WebRequest webRequest) {
+        // parallel, deferredJoin 은 실행 방식만 다르고 결과는 같다.
+        if (notModified(exactCount ? "v3" : "v3-capped", condition, pageable, webRequest)) {
+            return null;
+        }
+        // 인덱스는 정확한 전체 개수를 주므로, exactCount=false 여도 응답 모양(totalApproximate)만 capped 경로와 맞춘다.
+        Optional<Page<MemberTeamDto>> indexed = memberSearchIndex.searchPage(condition, pageable);
+        if (indexed.isPresent()) {
+            Page<MemberTeamDto> page = indexed.get();
+            return exactCount ? page : new CappedPage<>(page.getContent(), pageable, page.getTotalElements(), false);
+        }
+        if (!exactCount) {
+            return memberRepository.searchPageCapped(condition, pageable, countCap);
+        }
+        if (denormalized) {
+            return memberRepository.searchPageDenormalized(condition, pageable);
+        }
+        if (deferredJoin) {
+            return memberRepository.searchPageDeferredJoin(condition, pageable);
+        }
+        if (parallel) {
+            return memberRepository.searchPageParallel(condition, pageable);
+        }
         return memberRepository.searchPageComplex(condition, pageable);
     }
 
     @GetMapping("v4/members")
-    public Page<MemberTeamDto> searchMemberV4(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageCountQuery(condition, pageable);
+    @Admission(AdmissionGroup.COUNT)
+    public Page<MemberTeamDto> searchMemberV4(MemberSearchCondition condition, Pageable pageable, WebRequest webRequest) {
+        if (notModified("v4", condition, pageable, webRequest)) {
+            return null;
+        }
+        return memberSearchIndex.searchPage(condition, pageable)
+                .orElseGet(() -> memberSearchCoalescer.execute("v4", condition, pageable, () -> memberRepository.searchPageCountQuery(condition, pageable)));
+    }
+
+    // 데이터 버전으로 만든 ETag 가 If-None-Match 와 같으면 쿼리 없이 304 로 응답한다.
+    // ETag 는 조회 전에 구하므로, 조회 도중에 커밋된 변경은 다음 요청에서 다른 ETag 가 된다.
+    private boolean notModified(String kind, MemberSearchCondition condition, Pageable pageable, WebRequest webRequest) {
+        if (webRequest.checkNotModified(memberDataVersions.etag(kind, condition, pageable))) {
+            memberDataVersions.recordNotModified();
+            return true;
+        }
+        return false;
+    }
+
+    // 전체 개수 없이 다음 페이지 존재 여부만 (무한 스크롤)
+    @GetMapping("/slice/members")
+    @Admission(AdmissionGroup.CONTENT)
+    public Slice<MemberTeamDto> searchMemberSlice(MemberSearchCondition condition, Pageable pageable) {
+        return memberRepository.searchSlice(condition, pageable);
+    }
+
+    // 커서 기반 페이징, 깊은 페이지도 첫 페이지와 같은 비용이 든다.
+    @GetMapping("v5/members")
+    @Admission(AdmissionGroup.CONTENT)
+    public MemberCursorPage searchMemberV5(MemberSearchCondition condition,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "20") int size) {
+        if (size < 1 || size > 1000) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size 는 1 ~ 1000 사이여야 합니다.");
+        }
+        // 잘못된 커서는 InvalidCursorException(400)
+        return memberRepository.searchByCursor(condition, cursor, size);
+    }
+
+    // 회원 JSON 배열을 스트리밍으로 읽어 청크 단위로 저장한다. (행 수, 처리 시간, rows/sec 응답)
+    @PostMapping(value = "/members/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Admission(AdmissionGroup.LONG_RUNNING)
+    public MemberBulkIngester.IngestResult bulkInsertMembers(InputStream body) throws IOException {
+        return memberBulkIngester.ingest(body);
     }
-}
\ No newline at end of file
+}
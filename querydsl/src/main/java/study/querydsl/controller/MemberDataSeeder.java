@@ -0,0 +1,133 @@
+package study.querydsl.controller;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * 대량 데이터 생성기
+ * - chunkSize 건마다 트랜잭션을 끊고, flush() / clear() 로 영속성 컨텍스트를 비운다. (메모리 일정)
+ * - hibernate.jdbc.batch_size + order_inserts 로 insert 를 JDBC 배치로 묶는다.
+ * - id 는 pooled 시퀀스(allocationSize)로 할당하므로 행마다 시퀀스를 조회하지 않는다.
+ * - skew 가 0 이면 팀마다 회원 수가 같고, 클수록 앞쪽 팀에 회원이 몰린다. (Zipf 분포, 1 이면 전형적인 롱테일)
+ */
+@Slf4j
+@Component
+public class MemberDataSeeder {
+
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public MemberDataSeeder(EntityManager em,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${seed.chunk-size:5000}") int chunkSize) {
+        this.em = em;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public SeedResult seed(int teamCount, int memberCount, double skew) {
+        if (teamCount < 1 || memberCount < 0) {
+            throw new IllegalArgumentException("teamCount 는 1 이상, memberCount 는 0 이상이어야 합니다.");
+        }
+        long start = System.nanoTime();
+
+        long[] teamIds = new long[teamCount];
+        for (int from = 0; from < teamCount; from += chunkSize) {
+            int chunkFrom = from;
+            int chunkTo = Math.min(teamCount, from + chunkSize);
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = chunkFrom; i < chunkTo; i++) {
+                    Team team = new Team(teamName(i));
+                    em.persist(team);
+                    teamIds[i] = team.getId(); // 시퀀스 전략이라 persist 시점에 id 가 정해진다.
+                }
+                em.flush();
+                em.clear();
+            });
+        }
+
+        TeamPicker teamPicker = new TeamPicker(teamCount, skew);
+        for (int from = 0; from < memberCount; from += chunkSize) {
+            int chunkFrom = from;
+            int chunkTo = Math.min(memberCount, from + chunkSize);
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = chunkFrom; i < chunkTo; i++) {
+                    Member member = new Member("member" + i, i % 100);
+                    // 팀은 프록시로만 참조하고, 이름은 알고 있으므로 팀을 읽지 않는다.
+                    int teamIndex = teamPicker.pick(i);
+                    member.changeTeam(em.getReference(Team.class, teamIds[teamIndex]), teamName(teamIndex));
+                    em.persist(member);
+                }
+                em.flush();
+                em.clear();
+            });
+        }
+
+        SeedResult result = new SeedResult(teamCount, memberCount, System.nanoTime() - start);
+        log.info("seeded {} teams, {} members in {}ms ({} rows/sec)",
+                teamCount, memberCount, result.elapsedMillis(), result.rowsPerSecond());
+        return result;
+    }
+
+    // 26개까지는 기존 데이터와 같은 teamA, teamB, ... 이름을 쓴다.
+    static String teamName(int index) {
+        return index < 26 ? "team" + (char) ('A' + index) : "team" + index;
+    }
+
+    /**
+     * 회원 번호 -> 팀 번호
+     * skew == 0 이면 i % teamCount 로 고르게 나누고, 그 외에는 고정 시드의 난수로 Zipf 분포에서 뽑는다.
+     */
+    static class TeamPicker {
+
+        private final int teamCount;
+        private final double[] cumulative;
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        TeamPicker(int teamCount, double skew) {
+            this.teamCount = teamCount;
+            if (skew <= 0) {
+                this.cumulative = null;
+                return;
+            }
+            this.cumulative = new double[teamCount];
+            double sum = 0;
+            for (int rank = 0; rank < teamCount; rank++) {
+                sum += 1.0 / Math.pow(rank + 1, skew);
+                cumulative[rank] = sum;
+            }
+            for (int rank = 0; rank < teamCount; rank++) {
+                cumulative[rank] /= sum;
+            }
+        }
+
+        int pick(int memberIndex) {
+            if (cumulative == null) {
+                return memberIndex % teamCount;
+            }
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(teamCount - 1, index >= 0 ? index : -index - 1);
+        }
+    }
+
+    public record SeedResult(int teams, int members, long elapsedNanos) {
+
+        public long elapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+
+        public long rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : (teams + members) * 1_000_000_000L / elapsedNanos;
+        }
+    }
+}
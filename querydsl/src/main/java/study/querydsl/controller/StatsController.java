@@ -0,0 +1,84 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.admission.AdmissionControl;
+import study.querydsl.cache.MemberDataVersions;
+import study.querydsl.cache.MemberSearchCache;
+import study.querydsl.cache.MemberSearchCoalescer;
+import study.querydsl.event.TeamStatsReconciler;
+import study.querydsl.index.MemberSearchIndex;
+import study.querydsl.metrics.SqlMetrics;
+import study.querydsl.repository.support.MemberSearchQueryTemplates;
+import study.querydsl.repository.support.ParallelPageQueryExecutor;
+
+import java.util.Map;
+
+/**
+ * 검색 성능 관련 지표 조회
+ */
+@RestController
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final ParallelPageQueryExecutor parallelPageQueryExecutor;
+    private final MemberSearchQueryTemplates memberSearchQueryTemplates;
+    private final MemberSearchCache memberSearchCache;
+    private final SqlMetrics sqlMetrics;
+    private final MemberSearchIndex memberSearchIndex;
+    private final MemberSearchCoalescer memberSearchCoalescer;
+    private final MemberDataVersions memberDataVersions;
+    private final AdmissionControl admissionControl;
+    private final TeamStatsReconciler teamStatsReconciler;
+
+    @GetMapping("/stats/parallel-page")
+    public Map<String, Long> parallelPage() {
+        return parallelPageQueryExecutor.stats();
+    }
+
+    @GetMapping("/stats/query-templates")
+    public Map<String, Long> queryTemplates() {
+        return memberSearchQueryTemplates.stats();
+    }
+
+    @GetMapping("/stats/search-cache")
+    public Map<String, Long> searchCache() {
+        return memberSearchCache.stats();
+    }
+
+    // 동시에 들어온 같은 검색을 한 번의 실행으로 합친 횟수
+    @GetMapping("/stats/search-coalesce")
+    public Map<String, Long> searchCoalesce() {
+        return memberSearchCoalescer.stats();
+    }
+
+    // ETag 용 데이터 버전과 304 로 응답한 횟수
+    @GetMapping("/stats/data-versions")
+    public Map<String, Long> dataVersions() {
+        return memberDataVersions.stats();
+    }
+
+    // 엔드포인트 묶음별 동시 실행 제한값, 대기/거절 수
+    @GetMapping("/stats/admission")
+    public Map<String, Object> admission() {
+        return admissionControl.stats();
+    }
+
+    @GetMapping("/stats/search-index")
+    public Map<String, Long> searchIndex() {
+        return memberSearchIndex.stats();
+    }
+
+    // 엔드포인트/리포지토리 메서드별 SQL 실행 수, DB 시간, 읽은 행 수와 최근 N+1 의심 목록
+    @GetMapping("/stats/sql")
+    public Map<String, Object> sql() {
+        return sqlMetrics.snapshot();
+    }
+
+    // 팀 집계 점검 횟수와 어긋난 팀 수
+    @GetMapping("/stats/team-stats-reconcile")
+    public Map<String, Long> teamStatsReconcile() {
+        return teamStatsReconciler.stats();
+    }
+}
@@ -0,0 +1,73 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.querydsl.admission.Admission;
+import study.querydsl.admission.AdmissionGroup;
+import study.querydsl.dto.BulkOperationResult;
+import study.querydsl.dto.TeamMembersDto;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.dto.TeamStatsReconciliation;
+import study.querydsl.event.TeamStatsReconciler;
+import study.querydsl.repository.TeamBulkRepository;
+import study.querydsl.repository.TeamQueryRepository;
+import study.querydsl.repository.TeamStatsRepository;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamQueryRepository teamQueryRepository;
+    private final TeamStatsRepository teamStatsRepository;
+    private final TeamStatsReconciler teamStatsReconciler;
+    private final TeamBulkRepository teamBulkRepository;
+
+    @Value("${teams.max-members-per-team:10}")
+    private int maxMembersPerTeam;
+
+    // 팀을 id 순으로 페이징하고, 팀마다 회원을 memberLimit 건까지 담는다.
+    @GetMapping("/teams")
+    @Admission(AdmissionGroup.COUNT)
+    public Page<TeamMembersDto> teams(Pageable pageable,
+                                      @RequestParam(required = false) Integer memberLimit) {
+        int limit = memberLimit == null ? maxMembersPerTeam : memberLimit;
+        if (limit < 1 || limit > maxMembersPerTeam) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "memberLimit 는 1 ~ " + maxMembersPerTeam + " 사이여야 합니다.");
+        }
+        return teamQueryRepository.findTeamsWithMembers(pageable, limit);
+    }
+
+    // 팀별 회원 수, 나이 합/평균/최소/최대. team 에 유지하는 집계만 읽는다. (member 를 읽지 않음)
+    @GetMapping("/teams/stats")
+    @Admission(AdmissionGroup.CONTENT)
+    public Page<TeamStatsDto> teamStats(Pageable pageable) {
+        return teamStatsRepository.findTeamStats(pageable);
+    }
+
+    // 집계를 member 전체와 맞춰 본다. repair 면 어긋난 팀을 다시 집계한다.
+    // member 전체를 group by 하므로 count 쿼리와 같은 그룹으로 동시 실행 수를 제한한다.
+    @PostMapping("/teams/stats/reconcile")
+    @Admission(AdmissionGroup.COUNT)
+    public TeamStatsReconciliation reconcileTeamStats(@RequestParam(defaultValue = "false") boolean repair) {
+        return teamStatsReconciler.reconcile(repair);
+    }
+
+    // 팀 이름 접두사를 청크 단위로 바꾼다. member.teamName 은 커밋 이후에 따로 맞춰진다. (TeamNameSynchronizer)
+    @PostMapping("/teams/bulk/rename")
+    @Admission(AdmissionGroup.LONG_RUNNING)
+    public BulkOperationResult bulkRenameTeams(@RequestParam String fromPrefix, @RequestParam String toPrefix) {
+        if (fromPrefix.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "fromPrefix 는 비어 있을 수 없습니다.");
+        }
+        return teamBulkRepository.bulkRenamePrefix(fromPrefix, toPrefix);
+    }
+}
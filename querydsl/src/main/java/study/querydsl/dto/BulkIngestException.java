@@ -0,0 +1,26 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 대량 적재 요청 본문이 잘못되었을 때 (400)
+ * 앞선 청크는 이미 커밋되었으므로, 몇 건까지 저장되었는지 함께 알려준다.
+ */
+@Getter
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BulkIngestException extends IllegalArgumentException {
+
+    private final long committedRows;
+
+    public BulkIngestException(String message, long committedRows) {
+        super(message + " (이미 저장된 행: " + committedRows + ")");
+        this.committedRows = committedRows;
+    }
+
+    public BulkIngestException(String message, long committedRows, Throwable cause) {
+        super(message + " (이미 저장된 행: " + committedRows + ")", cause);
+        this.committedRows = committedRows;
+    }
+}
@@ -0,0 +1,15 @@
+package study.querydsl.dto;
+
+/**
+ * 청크 단위 벌크 연산 결과 (영향받은 행 수, 청크 수, 처리량)
+ */
+public record BulkOperationResult(String operation, long rows, int chunks, long elapsedNanos) {
+
+    public long elapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    public long rowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * 1_000_000_000L / elapsedNanos;
+    }
+}
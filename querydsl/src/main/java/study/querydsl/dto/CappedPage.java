@@ -0,0 +1,24 @@
+package study.querydsl.dto;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * 전체 개수를 상한(cap)까지만 센 페이지
+ * totalApproximate 가 true 이면 totalElements 는 정확한 값이 아니라 "최소 이만큼은 있다"는 하한값이다. (화면에서는 "10,000+" 처럼 보여준다)
+ */
+public class CappedPage<T> extends PageImpl<T> {
+
+    private final boolean totalApproximate;
+
+    public CappedPage(List<T> content, Pageable pageable, long total, boolean totalApproximate) {
+        super(content, pageable, total);
+        this.totalApproximate = totalApproximate;
+    }
+
+    public boolean isTotalApproximate() {
+        return totalApproximate;
+    }
+}
@@ -0,0 +1,16 @@
+package study.querydsl.dto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 해석할 수 없는 커서. 컨트롤러까지 올라가면 400 으로 응답한다.
+ * IllegalArgumentException 을 상속하면 리포지토리 프록시가 InvalidDataAccessApiUsageException 으로 바꾸므로 RuntimeException 을 상속한다.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,8 @@
+package study.querydsl.dto;
+
+/**
+ * POST /members/bulk 로 받는 회원 한 건
+ * teamName 이 없으면 팀 없이 저장하고, 없는 팀이면 새로 만든다.
+ */
+public record MemberBulkRow(String username, int age, String teamName) {
+}
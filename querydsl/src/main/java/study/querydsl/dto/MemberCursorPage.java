@@ -0,0 +1,47 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 커서(keyset) 기반 페이징 결과
+ * nextCursor 는 마지막 회원의 id 를 감싼 불투명한 문자열이다. 클라이언트는 내용을 해석하지 않고 그대로 돌려준다.
+ */
+@Getter
+public class MemberCursorPage {
+
+    private final List<MemberTeamDto> content;
+    private final String nextCursor;
+    private final boolean hasNext;
+
+    public MemberCursorPage(List<MemberTeamDto> content, Long lastMemberId, boolean hasNext) {
+        this.content = content;
+        this.hasNext = hasNext;
+        this.nextCursor = hasNext ? encodeCursor(lastMemberId) : null;
+    }
+
+    public static String encodeCursor(Long memberId) {
+        byte[] bytes = ByteBuffer.allocate(Long.BYTES).putLong(memberId).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    // 첫 페이지는 커서가 없다.
+    public static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("잘못된 커서입니다: " + cursor, e);
+        }
+        if (bytes.length != Long.BYTES) {
+            throw new InvalidCursorException("잘못된 커서입니다: " + cursor, null);
+        }
+        return ByteBuffer.wrap(bytes).getLong();
+    }
+}
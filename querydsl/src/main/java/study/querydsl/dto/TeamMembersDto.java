@@ -0,0 +1,36 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 팀과 그 팀의 회원 일부 (/teams)
+ * members 는 팀마다 memberLimit 건까지만 담고, memberCount 는 팀의 전체 회원 수(team.member_count)다.
+ */
+@Getter
+public class TeamMembersDto {
+
+    private final Long teamId;
+    private final String name;
+    private final long memberCount;
+    private final List<Member> members = new ArrayList<>();
+
+    public TeamMembersDto(Long teamId, String name, long memberCount) {
+        this.teamId = teamId;
+        this.name = name;
+        this.memberCount = memberCount;
+    }
+
+    public boolean isMembersTruncated() {
+        return members.size() < memberCount;
+    }
+
+    public void addMember(Long memberId, String username, int age) {
+        this.members.add(new Member(memberId, username, age));
+    }
+
+    public record Member(Long memberId, String username, int age) {
+    }
+}
@@ -0,0 +1,32 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+/**
+ * 팀별 회원 집계 (/teams/stats)
+ * team 테이블에 유지하는 값을 그대로 읽으므로 member 를 읽지 않는다.
+ */
+@Getter
+public class TeamStatsDto {
+
+    private final Long teamId;
+    private final String name;
+    private final long memberCount;
+    private final long ageSum;
+    private final Integer minAge;
+    private final Integer maxAge;
+
+    public TeamStatsDto(Long teamId, String name, long memberCount, long ageSum, Integer minAge, Integer maxAge) {
+        this.teamId = teamId;
+        this.name = name;
+        this.memberCount = memberCount;
+        this.ageSum = ageSum;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+    }
+
+    // 회원이 없으면 null
+    public Double getAverageAge() {
+        return memberCount == 0 ? null : (double) ageSum / memberCount;
+    }
+}
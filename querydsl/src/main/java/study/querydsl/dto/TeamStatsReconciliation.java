@@ -0,0 +1,14 @@
+package study.querydsl.dto;
+
+import java.util.List;
+
+/**
+ * 팀 집계 점검 결과. mismatchedTeamIds 는 유지하던 값과 member 에서 다시 구한 값이 다른 팀이다.
+ * 점검 중에 커밋된 변경 때문에 잠깐 어긋나 보일 수 있으며, repaired 면 그 팀들을 다시 집계했다.
+ */
+public record TeamStatsReconciliation(int teams, List<Long> mismatchedTeamIds, boolean repaired, long elapsedNanos) {
+
+    public long elapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+}
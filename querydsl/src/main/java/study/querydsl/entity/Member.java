@@ -2,25 +2,43 @@ package study.querydsl.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.Hibernate;
 
 @Setter
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"}) // 연관관계 필드는 안 적는 것이 좋다. 순환 방지
 @Entity
+// 검색 조건에 맞춘 인덱스: 회원명 일치, 나이 범위, 팀(team_id) + 나이 범위, 팀 이름(비정규화) + 나이 범위
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),
+        @Index(name = "idx_member_age", columnList = "age"),
+        @Index(name = "idx_member_team_age", columnList = "team_id, age"),
+        @Index(name = "idx_member_team_name_age", columnList = "team_name, age")
+})
 public class Member {
 
     @Id
-    @GeneratedValue
+    // pooled 시퀀스: allocationSize 만큼 id 를 한 번에 예약해서, 대량 insert 때 행마다 시퀀스를 조회하지 않는다.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 100)
     @Column(name = "member_id")
     private Long id;
     private String username;
     private int age;
 
+    // 팀과 teamName, 양쪽 Team 의 회원 목록을 함께 맞추도록 changeTeam 으로만 바꾼다.
+    @Setter(AccessLevel.NONE)
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "team_id")
     private Team team;
 
+    // 비정규화한 팀 이름. 팀 조인 없이 팀명으로 검색/조회하기 위함이다.
+    // changeTeam 으로 맞추고, 팀 이름이 바뀌면 TeamNameSynchronizer 가 벌크 update 로 맞춘다.
+    @Setter(AccessLevel.NONE)
+    @Column(name = "team_name")
+    private String teamName;
+
     public Member(String username) {
         this(username, 0);
     }
@@ -37,8 +55,30 @@ public class Member {
         }
     }
 
+    /**
+     * 팀 이름도 함께 맞추므로, 팀이 로딩되지 않은 프록시라면 팀 한 건을 읽는다. (members 컬렉션은 읽지 않는다)
+     */
     public void changeTeam(Team team) {
-        this.team = team; // 들어온 Team 으로 Member 의 Team 갱신
-        team.getMembers().add(this); // 갱신된 Member 를 Team 의 List<Member> 에 갱신
+        changeTeam(team, team == null ? null : team.getName());
+    }
+
+    /**
+     * 팀 이름을 이미 알고 있을 때(대량 적재 등) 프록시 팀을 초기화하지 않고 바꾼다. teamName 은 실제 팀 이름과 같아야 한다.
+     */
+    public void changeTeam(Team team, String teamName) {
+        Team previous = this.team;
+        this.team = team; // 들어온 Team 으로 Member 의 Team 갱신 (연관관계의 주인, FK 는 이것만으로 저장된다)
+        this.teamName = teamName;
+        if (previous == team) {
+            return;
+        }
+        // 양쪽 Team 의 List<Member> 는 이미 메모리에 올라와 있을 때만 맞춘다.
+        // 프록시나 로딩 전 컬렉션을 건드리면 팀/회원 전체를 읽게 되므로 그대로 두고, 나중에 로딩될 때 DB 에서 반영된 값을 읽는다.
+        if (previous != null && Hibernate.isInitialized(previous)) {
+            ((Team) Hibernate.unproxy(previous)).removeLoadedMember(this);
+        }
+        if (team != null && Hibernate.isInitialized(team)) {
+            ((Team) Hibernate.unproxy(team)).addLoadedMember(this);
+        }
     }
 }
\ No newline at end of file
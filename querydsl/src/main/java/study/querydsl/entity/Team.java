@@ -1,10 +1,16 @@
 package study.querydsl.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import lombok.*;
+import org.hibernate.Hibernate;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -14,17 +20,47 @@ import java.util.List;
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
 @Entity
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name"))
 public class Team {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 100)
     private Long id;
     private String name;
 
+    // 팀 회원 집계. TeamStatsTracker 와 벌크 연산이 SQL 로 증감하므로 엔티티 update 에서는 쓰지 않는다. (updatable = false)
+    // 최솟값/최댓값은 회원이 빠지면 증감할 수 없어서, 그 팀만 idx_member_team_age 로 다시 구한다.
+    @Setter(AccessLevel.NONE)
+    @Column(name = "member_count", nullable = false, updatable = false)
+    private long memberCount;
+    @Setter(AccessLevel.NONE)
+    @Column(name = "age_sum", nullable = false, updatable = false)
+    private long ageSum;
+    @Setter(AccessLevel.NONE)
+    @Column(name = "min_age", updatable = false)
+    private Integer minAge;
+    @Setter(AccessLevel.NONE)
+    @Column(name = "max_age", updatable = false)
+    private Integer maxAge;
+
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
     public Team(String name) {
         this.name = name;
     }
+
+    // Member.changeTeam 에서만 부른다. 로딩되지 않은 컬렉션은 초기화하지 않는다.
+    void addLoadedMember(Member member) {
+        if (Hibernate.isInitialized(members)) {
+            members.add(member);
+        }
+    }
+
+    void removeLoadedMember(Member member) {
+        if (Hibernate.isInitialized(members)) {
+            members.remove(member);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package study.querydsl.event;
+
+/**
+ * 벌크 연산(update/delete 쿼리)으로 여러 행이 바뀌었을 때 발행한다.
+ * 벌크 연산은 영속성 컨텍스트를 거치지 않아 Hibernate 엔티티 이벤트가 발생하지 않으므로, 벌크 연산을 실행한 쪽에서 직접 발행해야 한다.
+ * 어떤 행이 바뀌었는지 알 수 없으므로 받는 쪽은 해당 엔티티 전체가 바뀐 것으로 취급한다.
+ */
+public record BulkChangedEvent(Class<?> entityType) {
+}
@@ -0,0 +1,120 @@
+package study.querydsl.event;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.Team;
+
+import java.util.function.Supplier;
+
+import static study.querydsl.event.EntityStates.isMember;
+import static study.querydsl.event.EntityStates.isTeam;
+import static study.querydsl.event.EntityStates.memberAge;
+import static study.querydsl.event.EntityStates.teamId;
+import static study.querydsl.event.EntityStates.value;
+
+/**
+ * Hibernate 의 커밋 후(post-commit) 엔티티 이벤트를 스프링 이벤트(MemberChangedEvent, TeamChangedEvent)로 바꿔서 발행한다.
+ * 커밋된 변경만 전달되므로, 롤백된 트랜잭션 때문에 캐시나 인덱스가 흔들리지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityChangeEventBridge implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // 대량 적재처럼 행마다 이벤트를 낼 필요가 없는 작업은, 이 스레드의 엔티티 이벤트를 끄고 BulkChangedEvent 하나로 대신한다.
+    private final ThreadLocal<Boolean> suppressed = new ThreadLocal<>();
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    /**
+     * 작업(커밋 포함) 동안 이 스레드의 엔티티 이벤트를 발행하지 않는다. 호출한 쪽이 BulkChangedEvent 를 발행해야 한다.
+     */
+    public <T> T withoutEntityEvents(Supplier<T> work) {
+        Boolean previous = suppressed.get();
+        suppressed.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                suppressed.remove();
+            } else {
+                suppressed.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publish(ChangeType.INSERT, event.getPersister(), event.getId(), null, event.getState());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(ChangeType.UPDATE, event.getPersister(), event.getId(), event.getOldState(), event.getState());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(ChangeType.DELETE, event.getPersister(), event.getId(), event.getDeletedState(), null);
+    }
+
+    // 커밋이 실패하면 바뀐 것이 없으므로 발행하지 않는다.
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return isMember(persister) || isTeam(persister);
+    }
+
+    private void publish(ChangeType type, EntityPersister persister, Object id, Object[] before, Object[] after) {
+        if (suppressed.get() != null) {
+            return;
+        }
+        if (isMember(persister)) {
+            eventPublisher.publishEvent(new MemberChangedEvent(type, (Long) id,
+                    memberState(persister, before), memberState(persister, after)));
+        } else if (isTeam(persister)) {
+            eventPublisher.publishEvent(new TeamChangedEvent(type, (Long) id,
+                    (String) value(persister, before, "name"), (String) value(persister, after, "name")));
+        }
+    }
+
+    private static MemberState memberState(EntityPersister persister, Object[] state) {
+        if (state == null) {
+            return null;
+        }
+        Object team = value(persister, state, "team");
+        return new MemberState(
+                (String) value(persister, state, "username"),
+                memberAge(persister, state),
+                teamId(team),
+                team != null && Hibernate.isInitialized(team) ? ((Team) team).getName() : null);
+    }
+}
@@ -0,0 +1,54 @@
+package study.querydsl.event;
+
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.Arrays;
+
+/**
+ * Hibernate 이벤트의 엔티티 상태 배열(Object[])에서 값을 꺼내는 도우미
+ * EntityChangeEventBridge(커밋 후)와 TeamStatsTracker(flush 시점)가 같이 쓴다.
+ */
+final class EntityStates {
+
+    private EntityStates() {
+    }
+
+    static boolean isMember(EntityPersister persister) {
+        return Member.class.getName().equals(persister.getEntityName());
+    }
+
+    static boolean isTeam(EntityPersister persister) {
+        return Team.class.getName().equals(persister.getEntityName());
+    }
+
+    static Object value(EntityPersister persister, Object[] state, String propertyName) {
+        if (state == null) {
+            return null;
+        }
+        int index = Arrays.asList(persister.getPropertyNames()).indexOf(propertyName);
+        return index < 0 ? null : state[index];
+    }
+
+    static int memberAge(EntityPersister persister, Object[] state) {
+        Integer age = (Integer) value(persister, state, "age");
+        return age == null ? 0 : age;
+    }
+
+    static Long memberTeamId(EntityPersister persister, Object[] state) {
+        return teamId(value(persister, state, "team"));
+    }
+
+    // 프록시의 식별자는 초기화 없이 꺼낸다.
+    static Long teamId(Object team) {
+        if (team == null) {
+            return null;
+        }
+        if (team instanceof HibernateProxy proxy) {
+            return (Long) proxy.getHibernateLazyInitializer().getIdentifier();
+        }
+        return ((Team) team).getId();
+    }
+}
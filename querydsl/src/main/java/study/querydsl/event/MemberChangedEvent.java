@@ -0,0 +1,8 @@
+package study.querydsl.event;
+
+/**
+ * 회원 한 건의 변경이 커밋되었을 때 발행된다.
+ * INSERT 는 before 가, DELETE 는 after 가 null 이다. UPDATE 인데 before 가 null 이면 변경 전 상태를 알 수 없는 경우다.
+ */
+public record MemberChangedEvent(ChangeType type, Long memberId, MemberState before, MemberState after) {
+}
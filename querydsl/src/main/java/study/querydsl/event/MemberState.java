@@ -0,0 +1,12 @@
+package study.querydsl.event;
+
+/**
+ * 변경 전/후 회원의 검색 조건 관련 값
+ * teamName 은 팀이 아직 로딩되지 않은 프록시라면 알 수 없으므로 null 이다. (teamId 가 있는데 teamName 이 null 이면 "모름")
+ */
+public record MemberState(String username, int age, Long teamId, String teamName) {
+
+    public boolean teamNameUnknown() {
+        return teamId != null && teamName == null;
+    }
+}
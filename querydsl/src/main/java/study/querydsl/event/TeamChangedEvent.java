@@ -0,0 +1,7 @@
+package study.querydsl.event;
+
+/**
+ * 팀 한 건의 변경이 커밋되었을 때 발행된다.
+ */
+public record TeamChangedEvent(ChangeType type, Long teamId, String beforeName, String afterName) {
+}
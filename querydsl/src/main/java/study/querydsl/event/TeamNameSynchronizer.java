@@ -0,0 +1,68 @@
+package study.querydsl.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 팀 이름이 바뀌면 비정규화한 member.teamName 을 맞춘다.
+ * 커밋 이후에 별도 스레드에서 id 구간 단위 벌크 update 로 반영하므로, 이름을 바꾼 트랜잭션이 회원 수만큼 길어지지 않는다.
+ * 벌크 연산(TeamBulkRepository)으로 팀이 바뀌면 어느 팀인지 알 수 없으므로 모든 회원을 맞춘다.
+ * 벌크 연산은 청크마다 이벤트를 내므로, 아직 시작하지 않은 전체 동기화가 있으면 새로 예약하지 않는다.
+ */
+@Slf4j
+@Component
+public class TeamNameSynchronizer implements DisposableBean {
+
+    private final MemberRepository memberRepository;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "team-name-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean fullSyncPending = new AtomicBoolean();
+
+    public TeamNameSynchronizer(MemberRepository memberRepository) {
+        this.memberRepository = memberRepository;
+    }
+
+    @EventListener
+    public void onTeamChanged(TeamChangedEvent event) {
+        if (event.type() == ChangeType.UPDATE && !Objects.equals(event.beforeName(), event.afterName())) {
+            executor.execute(() -> sync(event.teamId()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkChanged(BulkChangedEvent event) {
+        if (event.entityType() == Team.class && fullSyncPending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                // 시작하면서 내리므로, 동기화 중에 커밋된 청크는 다음 동기화가 반영한다.
+                fullSyncPending.set(false);
+                sync(null);
+            });
+        }
+    }
+
+    private void sync(Long teamId) {
+        try {
+            memberRepository.bulkSyncTeamName(teamId);
+        } catch (RuntimeException e) {
+            log.warn("member.teamName 동기화 실패: teamId={}", teamId, e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,77 @@
+package study.querydsl.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.TeamStatsReconciliation;
+import study.querydsl.repository.TeamStatsRepository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 팀 집계(Team.memberCount 등)를 주기적으로 member 전체와 맞춰 본다.
+ * 증감은 엔티티 변경과 이 프로젝트의 벌크 연산에서만 반영되므로, 그 밖의 벌크 JPQL/직접 SQL 로 바뀐 팀은 여기서 바로잡는다.
+ */
+@Slf4j
+@Component
+public class TeamStatsReconciler {
+
+    private final TeamStatsRepository teamStatsRepository;
+    private final boolean enabled;
+    private final boolean repair;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+    private final LongAdder repairs = new LongAdder();
+    private volatile long lastMismatches;
+    private volatile long lastElapsedNanos;
+
+    public TeamStatsReconciler(TeamStatsRepository teamStatsRepository,
+                               @Value("${team.stats.reconcile.enabled:true}") boolean enabled,
+                               @Value("${team.stats.reconcile.repair:true}") boolean repair) {
+        this.teamStatsRepository = teamStatsRepository;
+        this.enabled = enabled;
+        this.repair = repair;
+    }
+
+    @Scheduled(initialDelayString = "${team.stats.reconcile.interval-ms:3600000}",
+            fixedDelayString = "${team.stats.reconcile.interval-ms:3600000}")
+    public void scheduledReconcile() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            reconcile(repair);
+        } catch (RuntimeException e) {
+            log.warn("팀 집계 점검 실패", e);
+        }
+    }
+
+    public TeamStatsReconciliation reconcile(boolean repair) {
+        TeamStatsReconciliation result = teamStatsRepository.reconcile(repair);
+        runs.increment();
+        mismatches.add(result.mismatchedTeamIds().size());
+        if (result.repaired()) {
+            repairs.add(result.mismatchedTeamIds().size());
+        }
+        lastMismatches = result.mismatchedTeamIds().size();
+        lastElapsedNanos = result.elapsedNanos();
+        log.info("팀 집계 점검: {} 팀 중 {} 팀 불일치 (repaired={}), {}ms",
+                result.teams(), result.mismatchedTeamIds().size(), result.repaired(), result.elapsedMillis());
+        return result;
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("enabled", enabled ? 1L : 0L);
+        result.put("runs", runs.sum());
+        result.put("mismatches", mismatches.sum());
+        result.put("repaired", repairs.sum());
+        result.put("lastMismatches", lastMismatches);
+        result.put("lastElapsedMillis", lastElapsedNanos / 1_000_000);
+        return result;
+    }
+}
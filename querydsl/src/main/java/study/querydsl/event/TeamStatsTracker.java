@@ -0,0 +1,118 @@
+package study.querydsl.event;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import study.querydsl.repository.support.TeamStatsDelta;
+import study.querydsl.repository.support.TeamStatsSql;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static study.querydsl.event.EntityStates.isMember;
+import static study.querydsl.event.EntityStates.memberAge;
+import static study.querydsl.event.EntityStates.memberTeamId;
+
+/**
+ * 회원 insert/delete/팀 변경/나이 변경을 flush 시점에 모아서, 커밋 직전에 팀별 집계(Team.memberCount 등)를 한 번씩 증감한다.
+ * 같은 트랜잭션에서 반영하므로 롤백되면 집계도 함께 롤백되고, 팀마다 update 는 트랜잭션당 한 번이다.
+ * 벌크 JPQL 은 엔티티 이벤트가 없으므로 벌크 연산을 하는 쪽이 직접 TeamStatsSql 로 반영한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamStatsTracker implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    // 세션(= 진행 중인 트랜잭션)별로 모은 팀별 변화량
+    private final Map<SharedSessionContractImplementor, Map<Long, TeamStatsDelta>> pending = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (!isMember(event.getPersister())) {
+            return;
+        }
+        Long teamId = memberTeamId(event.getPersister(), event.getState());
+        if (teamId != null) {
+            delta(event.getSession(), teamId).add(memberAge(event.getPersister(), event.getState()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        EntityPersister persister = event.getPersister();
+        if (!isMember(persister)) {
+            return;
+        }
+        Long afterTeamId = memberTeamId(persister, event.getState());
+        int afterAge = memberAge(persister, event.getState());
+        if (event.getOldState() == null) {
+            // 이전 상태가 없으면(분리된 엔티티를 바로 update) 얼마나 바뀌었는지 모르므로 팀 전체를 다시 센다.
+            if (afterTeamId != null) {
+                delta(event.getSession(), afterTeamId).markRecompute();
+            }
+            return;
+        }
+        Long beforeTeamId = memberTeamId(persister, event.getOldState());
+        int beforeAge = memberAge(persister, event.getOldState());
+        if (Objects.equals(beforeTeamId, afterTeamId) && beforeAge == afterAge) {
+            return;
+        }
+        if (beforeTeamId != null) {
+            delta(event.getSession(), beforeTeamId).remove(beforeAge);
+        }
+        if (afterTeamId != null) {
+            delta(event.getSession(), afterTeamId).add(afterAge);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (!isMember(event.getPersister())) {
+            return;
+        }
+        Long teamId = memberTeamId(event.getPersister(), event.getDeletedState());
+        if (teamId != null) {
+            delta(event.getSession(), teamId).remove(memberAge(event.getPersister(), event.getDeletedState()));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    // 세션에서 처음 바뀐 회원이면, 커밋 직전(마지막 flush 이후)에 반영하고 트랜잭션이 끝나면 비우도록 등록한다.
+    private TeamStatsDelta delta(EventSource session, Long teamId) {
+        return pending.computeIfAbsent(session, key -> {
+            session.getActionQueue().registerProcess(this::apply);
+            session.getActionQueue().registerProcess((success, completed) -> pending.remove(completed));
+            return new HashMap<>();
+        }).computeIfAbsent(teamId, key -> new TeamStatsDelta());
+    }
+
+    private void apply(SharedSessionContractImplementor session) {
+        Map<Long, TeamStatsDelta> deltas = pending.remove(session);
+        if (deltas != null && !deltas.isEmpty()) {
+            session.doWork(connection -> TeamStatsSql.apply(connection, deltas));
+        }
+    }
+}
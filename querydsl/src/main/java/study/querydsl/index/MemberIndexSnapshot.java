@@ -0,0 +1,209 @@
+package study.querydsl.index;
+
+import java.util.*;
+
+/**
+ * 회원 검색용 컬럼형 인덱스의 불변 스냅샷
+ * 행 r 은 id 오름차순으로 정렬된 r 번째 회원이다.
+ * - ids / ages / teamIds / usernameCodes : 기본형 배열 컬럼
+ * - usernames : 회원명 사전 (코드 -> 문자열), rowsByUsername : 회원명 -> 행들 (해시 조회)
+ * - rowsByTeam : 팀 id -> 행들 (해시 조회)
+ * - ageOrder / sortedAges : 나이순으로 정렬한 행 번호와 그 나이 (이진 탐색으로 범위 조회)
+ */
+final class MemberIndexSnapshot {
+
+    static final long NO_TEAM = Long.MIN_VALUE;
+    private static final int[] NO_ROWS = new int[0];
+
+    private final long[] ids;
+    private final int[] ages;
+    private final long[] teamIds;
+    private final int[] usernameCodes;
+    private final String[] usernames;
+    private final Map<String, int[]> rowsByUsername;
+    private final Map<Long, int[]> rowsByTeam;
+    private final int[] ageOrder;
+    private final int[] sortedAges;
+
+    private MemberIndexSnapshot(long[] ids, int[] ages, long[] teamIds, int[] usernameCodes, String[] usernames,
+                                Map<String, int[]> rowsByUsername, Map<Long, int[]> rowsByTeam,
+                                int[] ageOrder, int[] sortedAges) {
+        this.ids = ids;
+        this.ages = ages;
+        this.teamIds = teamIds;
+        this.usernameCodes = usernameCodes;
+        this.usernames = usernames;
+        this.rowsByUsername = rowsByUsername;
+        this.rowsByTeam = rowsByTeam;
+        this.ageOrder = ageOrder;
+        this.sortedAges = sortedAges;
+    }
+
+    /**
+     * @param ids id 오름차순이어야 한다.
+     */
+    static MemberIndexSnapshot build(long[] ids, int[] ages, long[] teamIds, String[] usernamePerRow) {
+        int size = ids.length;
+
+        Map<String, Integer> codes = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        int[] usernameCodes = new int[size];
+        for (int row = 0; row < size; row++) {
+            String username = usernamePerRow[row];
+            Integer code = codes.get(username);
+            if (code == null) {
+                code = dictionary.size();
+                codes.put(username, code);
+                dictionary.add(username);
+            }
+            usernameCodes[row] = code;
+        }
+
+        // 회원명(코드)별 행 수를 먼저 세고, 배열을 한 번만 만들어 채운다. (같은 이름이 많아도 복사가 반복되지 않는다)
+        int[] codeSizes = new int[dictionary.size()];
+        for (int code : usernameCodes) {
+            codeSizes[code]++;
+        }
+        int[][] rowsByCode = new int[codeSizes.length][];
+        for (int code = 0; code < codeSizes.length; code++) {
+            rowsByCode[code] = new int[codeSizes[code]];
+        }
+        int[] codeFilled = new int[codeSizes.length];
+        for (int row = 0; row < size; row++) {
+            int code = usernameCodes[row];
+            rowsByCode[code][codeFilled[code]++] = row;
+        }
+        Map<String, int[]> rowsByUsername = new HashMap<>();
+        for (int code = 0; code < rowsByCode.length; code++) {
+            if (dictionary.get(code) != null) {
+                rowsByUsername.put(dictionary.get(code), rowsByCode[code]);
+            }
+        }
+
+        Map<Long, Integer> teamSizes = new HashMap<>();
+        for (long teamId : teamIds) {
+            teamSizes.merge(teamId, 1, Integer::sum);
+        }
+        Map<Long, int[]> rowsByTeam = new HashMap<>();
+        Map<Long, Integer> filled = new HashMap<>();
+        teamSizes.forEach((teamId, count) -> rowsByTeam.put(teamId, new int[count]));
+        for (int row = 0; row < size; row++) {
+            int position = filled.merge(teamIds[row], 1, Integer::sum) - 1;
+            rowsByTeam.get(teamIds[row])[position] = row;
+        }
+
+        // (나이, 행) 을 long 하나로 묶어서 정렬한다.
+        long[] keys = new long[size];
+        for (int row = 0; row < size; row++) {
+            keys[row] = ((long) ages[row] << 32) | (row & 0xffffffffL);
+        }
+        Arrays.sort(keys);
+        int[] ageOrder = new int[size];
+        int[] sortedAges = new int[size];
+        for (int i = 0; i < size; i++) {
+            ageOrder[i] = (int) keys[i];
+            sortedAges[i] = (int) (keys[i] >> 32);
+        }
+
+        return new MemberIndexSnapshot(ids, ages, teamIds, usernameCodes, dictionary.toArray(new String[0]),
+                rowsByUsername, rowsByTeam, ageOrder, sortedAges);
+    }
+
+    /**
+     * 조건에 맞는 행 번호들을 오름차순(= id 순)으로 돌려준다.
+     * 가장 좁은 후보(회원명 > 팀 > 나이 범위)를 인덱스로 고른 뒤, 나머지 조건은 컬럼 값으로 거른다.
+     * @param teamIds null 이면 팀 조건 없음
+     */
+    int[] match(String username, Set<Long> teamIds, Integer ageGoe, Integer ageLoe) {
+        int[] candidates;
+        if (username != null) {
+            candidates = rowsByUsername.getOrDefault(username, NO_ROWS);
+        } else if (teamIds != null) {
+            candidates = rowsOfTeams(teamIds);
+        } else if (ageGoe != null || ageLoe != null) {
+            int from = lowerBound(sortedAges, ageGoe != null ? ageGoe : Integer.MIN_VALUE);
+            int to = ageLoe != null ? upperBound(sortedAges, ageLoe) : sortedAges.length;
+            candidates = from < to ? Arrays.copyOfRange(ageOrder, from, to) : NO_ROWS;
+            Arrays.sort(candidates);
+        } else {
+            candidates = new int[ids.length];
+            for (int row = 0; row < candidates.length; row++) {
+                candidates[row] = row;
+            }
+            return candidates;
+        }
+
+        int[] matched = new int[candidates.length];
+        int count = 0;
+        for (int row : candidates) {
+            if (username != null && !username.equals(usernames[usernameCodes[row]])) continue;
+            if (teamIds != null && !teamIds.contains(teamId(row))) continue;
+            if (ageGoe != null && ages[row] < ageGoe) continue;
+            if (ageLoe != null && ages[row] > ageLoe) continue;
+            matched[count++] = row;
+        }
+        return count == matched.length ? matched : Arrays.copyOf(matched, count);
+    }
+
+    private int[] rowsOfTeams(Set<Long> teamIds) {
+        if (teamIds.size() == 1) {
+            return rowsByTeam.getOrDefault(teamIds.iterator().next(), NO_ROWS);
+        }
+        // 크기를 먼저 합해서 팀마다 한 번씩만 복사한다.
+        int total = 0;
+        for (Long teamId : teamIds) {
+            total += rowsByTeam.getOrDefault(teamId, NO_ROWS).length;
+        }
+        int[] rows = new int[total];
+        int filled = 0;
+        for (Long teamId : teamIds) {
+            int[] teamRows = rowsByTeam.getOrDefault(teamId, NO_ROWS);
+            System.arraycopy(teamRows, 0, rows, filled, teamRows.length);
+            filled += teamRows.length;
+        }
+        Arrays.sort(rows);
+        return rows;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    long id(int row) {
+        return ids[row];
+    }
+
+    String username(int row) {
+        return usernames[usernameCodes[row]];
+    }
+
+    int age(int row) {
+        return ages[row];
+    }
+
+    long teamId(int row) {
+        return teamIds[row];
+    }
+
+    private static int lowerBound(int[] sorted, int value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private static int upperBound(int[] sorted, int value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+}
@@ -0,0 +1,421 @@
+package study.querydsl.index;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.event.BulkChangedEvent;
+import study.querydsl.event.ChangeType;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.event.MemberState;
+import study.querydsl.event.TeamChangedEvent;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * DB 를 거치지 않고 회원 검색/페이징에 답하는 메모리 인덱스 (기본값은 꺼짐, member.search.index.enabled=true 로 켠다)
+ * 기준 데이터는 불변 스냅샷(MemberIndexSnapshot)이고, 그 뒤에 커밋된 변경은 id 별 델타로 덮어쓴다.
+ * 델타가 compact-threshold 를 넘거나 벌크 연산이 커밋되면 백그라운드에서 스냅샷을 다시 만든다.
+ * 다시 만드는 동안(stale)과 id 이외의 정렬 요청은 Optional.empty() 를 돌려주므로, 호출하는 쪽이 DB 로 조회하면 된다.
+ * 재구성은 항상 rebuildExecutor 한 스레드에서만 실행하므로 서로 겹치거나 건너뛰지 않는다.
+ */
+@Slf4j
+@Component
+public class MemberSearchIndex implements DisposableBean {
+
+    private static final int LOAD_FETCH_SIZE = 1000;
+
+    private final boolean enabled;
+    private final int compactThreshold;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "member-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile MemberIndexSnapshot snapshot;
+    private volatile boolean stale = true;
+    private final AtomicLong bulkGeneration = new AtomicLong();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    // 스냅샷 이후에 커밋된 회원 변경. state 가 null 이면 삭제된 회원이다.
+    private record Delta(long sequence, MemberState state) {
+    }
+
+    // 재구성 시작 이후의 팀 이름 변경. 재구성이 DB 에서 읽은 이름 위에 다시 덮어쓴다. name 이 null 이면 삭제된 팀이다.
+    private record TeamDelta(long sequence, String name) {
+    }
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Long, Delta> delta = new ConcurrentHashMap<>();
+    private final Map<Long, TeamDelta> teamDelta = new ConcurrentHashMap<>();
+    // 재구성이 끝나면 통째로 바꾼다. 바꾸기 전까지는 이벤트로 고친다.
+    private volatile Map<Long, String> teamNames = new ConcurrentHashMap<>();
+    private volatile Map<String, Set<Long>> teamIdsByName = new ConcurrentHashMap<>();
+
+    private final LongAdder served = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private final AtomicLong lastRebuildMillis = new AtomicLong();
+
+    public MemberSearchIndex(EntityManager em, PlatformTransactionManager transactionManager,
+                             @Value("${member.search.index.enabled:false}") boolean enabled,
+                             @Value("${member.search.index.compact-threshold:10000}") int compactThreshold) {
+        this.enabled = enabled;
+        this.compactThreshold = compactThreshold;
+        this.queryFactory = new JPAQueryFactory(em);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    public Optional<List<MemberTeamDto>> search(MemberSearchCondition condition) {
+        return query(condition).map(Result::all);
+    }
+
+    public Optional<Page<MemberTeamDto>> searchPage(MemberSearchCondition condition, Pageable pageable) {
+        // 인덱스는 id 순서만 유지한다.
+        if (pageable.getSort().isSorted()) {
+            return fallback();
+        }
+        return query(condition).map(result -> new PageImpl<>(
+                result.slice(pageable.getOffset(), pageable.getPageSize()), pageable, result.total()));
+    }
+
+    private Optional<Result> query(MemberSearchCondition condition) {
+        MemberIndexSnapshot current = snapshot;
+        if (!enabled || stale || current == null) {
+            return fallback();
+        }
+
+        String username = hasText(condition.getUsername()) ? condition.getUsername() : null;
+        Set<Long> teamIds = hasText(condition.getTeamName())
+                ? teamIdsByName.getOrDefault(condition.getTeamName(), Set.of())
+                : null;
+        Integer ageGoe = condition.getAgeGoe();
+        Integer ageLoe = condition.getAgeLoe();
+
+        // 스냅샷의 행 중 델타로 덮어쓴 회원은 빼고, 델타 쪽에서 다시 조건을 본다.
+        int[] rows = current.match(username, teamIds, ageGoe, ageLoe);
+        int kept = 0;
+        for (int row : rows) {
+            if (!delta.containsKey(current.id(row))) {
+                rows[kept++] = row;
+            }
+        }
+
+        List<MemberTeamDto> changed = new ArrayList<>();
+        delta.forEach((memberId, entry) -> {
+            MemberState state = entry.state();
+            if (state != null && matches(state, username, teamIds, ageGoe, ageLoe)) {
+                changed.add(new MemberTeamDto(memberId, state.username(), state.age(), state.teamId(),
+                        state.teamId() == null ? null : teamNames.get(state.teamId())));
+            }
+        });
+        changed.sort(Comparator.comparing(MemberTeamDto::getMemberId));
+
+        served.increment();
+        return Optional.of(new Result(current, rows, kept, changed));
+    }
+
+    private static boolean matches(MemberState state, String username, Set<Long> teamIds, Integer ageGoe, Integer ageLoe) {
+        return (username == null || username.equals(state.username()))
+                && (teamIds == null || (state.teamId() != null && teamIds.contains(state.teamId())))
+                && (ageGoe == null || state.age() >= ageGoe)
+                && (ageLoe == null || state.age() <= ageLoe);
+    }
+
+    private <T> Optional<T> fallback() {
+        fallbacks.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * 스냅샷 행(rows[0..rowCount))과 델타 결과(changed)를 id 순으로 합친 검색 결과
+     * DTO 는 요청한 구간만 만든다.
+     */
+    private final class Result {
+        private final MemberIndexSnapshot current;
+        private final int[] rows;
+        private final int rowCount;
+        private final List<MemberTeamDto> changed;
+
+        Result(MemberIndexSnapshot current, int[] rows, int rowCount, List<MemberTeamDto> changed) {
+            this.current = current;
+            this.rows = rows;
+            this.rowCount = rowCount;
+            this.changed = changed;
+        }
+
+        long total() {
+            return rowCount + changed.size();
+        }
+
+        List<MemberTeamDto> all() {
+            return slice(0, Integer.MAX_VALUE);
+        }
+
+        List<MemberTeamDto> slice(long offset, int limit) {
+            List<MemberTeamDto> content = new ArrayList<>((int) Math.min(limit, Math.max(0, total() - offset)));
+            int r = 0;
+            int c = 0;
+            long position = 0;
+            while ((r < rowCount || c < changed.size()) && content.size() < limit) {
+                boolean fromRows = c >= changed.size()
+                        || (r < rowCount && current.id(rows[r]) < changed.get(c).getMemberId());
+                if (position++ < offset) {
+                    if (fromRows) r++;
+                    else c++;
+                    continue;
+                }
+                content.add(fromRows ? toDto(rows[r++]) : changed.get(c++));
+            }
+            return content;
+        }
+
+        private MemberTeamDto toDto(int row) {
+            long teamId = current.teamId(row);
+            Long boxedTeamId = teamId == MemberIndexSnapshot.NO_TEAM ? null : teamId;
+            return new MemberTeamDto(current.id(row), current.username(row), current.age(row), boxedTeamId,
+                    boxedTeamId == null ? null : teamNames.get(boxedTeamId));
+        }
+    }
+
+    @EventListener
+    public void onMemberChanged(MemberChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        MemberState state = event.type() == ChangeType.DELETE ? null : event.after();
+        delta.put(event.memberId(), new Delta(sequence.incrementAndGet(), state));
+        if (delta.size() > compactThreshold) {
+            scheduleRebuild();
+        }
+    }
+
+    @EventListener
+    public void onTeamChanged(TeamChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        applyTeamChange(event.teamId(), event.type() == ChangeType.DELETE ? null : event.afterName());
+    }
+
+    private synchronized void applyTeamChange(Long teamId, String name) {
+        teamDelta.put(teamId, new TeamDelta(sequence.incrementAndGet(), name));
+        putTeamName(teamId, name);
+    }
+
+    // 벌크 연산은 엔티티 이벤트가 없으므로 커밋 이후에 스냅샷을 통째로 다시 만든다.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkChanged(BulkChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        bulkGeneration.incrementAndGet();
+        stale = true;
+        scheduleRebuild();
+    }
+
+    // 이미 대기 중인 재구성이 있으면 합친다. 진행 중인 재구성 뒤에는 하나만 더 줄 세운다.
+    private void scheduleRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildPending.set(false);
+                doRebuild();
+            });
+        }
+    }
+
+    /**
+     * 스냅샷을 다시 만들고 끝날 때까지 기다린다. (앞에 줄 서 있는 재구성이 있으면 그 뒤에 실행된다)
+     */
+    public void rebuild() {
+        try {
+            rebuildExecutor.submit(this::doRebuild).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("member search index rebuild failed", e.getCause());
+        }
+    }
+
+    // 테스트에서 재구성 앞에 작업을 끼워 넣어 stale 구간을 붙잡을 때 쓴다.
+    ExecutorService rebuildExecutor() {
+        return rebuildExecutor;
+    }
+
+    /**
+     * DB 에서 회원/팀을 읽어 스냅샷을 새로 만든다. rebuildExecutor 에서만 실행한다.
+     * 시작 시점까지 커밋된 변경은 새 스냅샷에 들어 있으므로, 그 이전의 델타만 지운다.
+     */
+    private void doRebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            long startSequence = sequence.get();
+            long startBulkGeneration = bulkGeneration.get();
+
+            Map<Long, String> loadedTeamNames = new HashMap<>();
+            MemberIndexSnapshot loaded = transactionTemplate.execute(status -> load(loadedTeamNames));
+
+            replaceTeamNames(loadedTeamNames, startSequence);
+            snapshot = loaded;
+            delta.values().removeIf(entry -> entry.sequence() <= startSequence);
+            // 읽는 도중에 벌크 연산이 커밋되었다면 대기 중인 재구성이 끝날 때까지 계속 stale 이다.
+            if (bulkGeneration.get() == startBulkGeneration) {
+                stale = false;
+            }
+
+            rebuilds.increment();
+            lastRebuildMillis.set(System.currentTimeMillis() - start);
+            log.info("member search index rebuilt: rows={}, {}ms", loaded.size(), lastRebuildMillis.get());
+        } catch (RuntimeException e) {
+            log.warn("member search index rebuild failed", e);
+        }
+    }
+
+    private MemberIndexSnapshot load(Map<Long, String> loadedTeamNames) {
+        for (Tuple row : queryFactory.select(team.id, team.name).from(team).fetch()) {
+            loadedTeamNames.put(row.get(team.id), row.get(team.name));
+        }
+
+        Columns columns = new Columns();
+        try (Stream<Tuple> rows = queryFactory
+                .select(member.id, member.username, member.age, member.team.id)
+                .from(member)
+                .orderBy(member.id.asc())
+                .setHint("org.hibernate.fetchSize", LOAD_FETCH_SIZE)
+                .stream()) {
+            rows.forEach(row -> {
+                Long teamId = row.get(member.team.id);
+                Integer age = row.get(member.age);
+                columns.add(row.get(member.id), row.get(member.username), age == null ? 0 : age,
+                        teamId == null ? MemberIndexSnapshot.NO_TEAM : teamId);
+            });
+        }
+        return columns.toSnapshot();
+    }
+
+    // DB 에서 읽은 이름으로 바꾸고, 읽기 시작한 뒤에 들어온 팀 변경만 그 위에 다시 적용한다.
+    // 이벤트를 놓쳐서 틀린 이름이 있었어도 재구성하면 바로잡힌다.
+    private synchronized void replaceTeamNames(Map<Long, String> loaded, long startSequence) {
+        teamDelta.values().removeIf(entry -> entry.sequence() <= startSequence);
+        Map<Long, String> names = new ConcurrentHashMap<>();
+        Map<String, Set<Long>> idsByName = new ConcurrentHashMap<>();
+        loaded.forEach((teamId, name) -> index(names, idsByName, teamId, name));
+        teamDelta.forEach((teamId, entry) -> {
+            unindex(names, idsByName, teamId);
+            index(names, idsByName, teamId, entry.name());
+        });
+        teamIdsByName = idsByName;
+        teamNames = names;
+    }
+
+    private synchronized void putTeamName(Long teamId, String name) {
+        unindex(teamNames, teamIdsByName, teamId);
+        index(teamNames, teamIdsByName, teamId, name);
+    }
+
+    private static void index(Map<Long, String> names, Map<String, Set<Long>> idsByName, Long teamId, String name) {
+        if (name == null) {
+            return;
+        }
+        names.put(teamId, name);
+        idsByName.computeIfAbsent(name, key -> ConcurrentHashMap.newKeySet()).add(teamId);
+    }
+
+    private static void unindex(Map<Long, String> names, Map<String, Set<Long>> idsByName, Long teamId) {
+        String previous = names.remove(teamId);
+        if (previous != null) {
+            Set<Long> ids = idsByName.get(previous);
+            if (ids != null) {
+                ids.remove(teamId);
+                if (ids.isEmpty()) {
+                    idsByName.remove(previous);
+                }
+            }
+        }
+    }
+
+    // 스냅샷을 만들 때만 쓰는 늘어나는 기본형 배열
+    private static final class Columns {
+        private long[] ids = new long[1024];
+        private int[] ages = new int[1024];
+        private long[] teamIds = new long[1024];
+        private String[] usernames = new String[1024];
+        private int size;
+
+        void add(long id, String username, int age, long teamId) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                ages = Arrays.copyOf(ages, capacity);
+                teamIds = Arrays.copyOf(teamIds, capacity);
+                usernames = Arrays.copyOf(usernames, capacity);
+            }
+            ids[size] = id;
+            ages[size] = age;
+            teamIds[size] = teamId;
+            usernames[size] = username;
+            size++;
+        }
+
+        MemberIndexSnapshot toSnapshot() {
+            return MemberIndexSnapshot.build(Arrays.copyOf(ids, size), Arrays.copyOf(ages, size),
+                    Arrays.copyOf(teamIds, size), Arrays.copyOf(usernames, size));
+        }
+    }
+
+    public Map<String, Long> stats() {
+        MemberIndexSnapshot current = snapshot;
+        Map<String, Long> result = new LinkedHashMap<>();
+        result.put("enabled", enabled ? 1L : 0L);
+        result.put("ready", !stale && current != null ? 1L : 0L);
+        result.put("rows", current == null ? 0L : current.size());
+        result.put("deltaSize", (long) delta.size());
+        result.put("teams", (long) teamNames.size());
+        result.put("served", served.sum());
+        result.put("fallbacks", fallbacks.sum());
+        result.put("rebuilds", rebuilds.sum());
+        result.put("lastRebuildMillis", lastRebuildMillis.get());
+        return result;
+    }
+
+    @Override
+    public void destroy() {
+        rebuildExecutor.shutdownNow();
+    }
+}
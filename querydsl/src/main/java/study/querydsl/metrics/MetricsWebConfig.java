@@ -0,0 +1,24 @@
+package study.querydsl.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import study.querydsl.admission.AdmissionInterceptor;
+
+@Configuration
+@RequiredArgsConstructor
+public class MetricsWebConfig implements WebMvcConfigurer {
+
+    private final SqlMetricsInterceptor sqlMetricsInterceptor;
+    private final AdmissionInterceptor admissionInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(sqlMetricsInterceptor)
+                .excludePathPatterns("/stats/**");
+        // 끝날 때는 역순으로 불리므로, SQL 집계가 정리되기 전에 요청의 DB 시간을 읽을 수 있다.
+        registry.addInterceptor(admissionInterceptor)
+                .excludePathPatterns("/stats/**");
+    }
+}
@@ -0,0 +1,32 @@
+package study.querydsl.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * 리포지토리 메서드(MemberRepositoryImpl.*, MemberJpaRepository.*, TeamQueryRepository.*) 안에서 실행된 SQL 을 그 메서드에 귀속시킨다.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+    private final SqlMetrics sqlMetrics;
+
+    @Around("execution(public * study.querydsl.repository.MemberRepositoryImpl.*(..))"
+            + " || execution(public * study.querydsl.repository.MemberJpaRepository.*(..))"
+            + " || execution(public * study.querydsl.repository.TeamQueryRepository.*(..))"
+            + " || execution(public * study.querydsl.repository.TeamStatsRepository.*(..))")
+    public Object attribute(ProceedingJoinPoint joinPoint) throws Throwable {
+        sqlMetrics.enterRepository(joinPoint.getSignature().getDeclaringType().getSimpleName()
+                + "." + joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            sqlMetrics.exitRepository();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package study.querydsl.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * 실행된 SQL 을 현재 HTTP 엔드포인트와 리포지토리 메서드에 귀속시켜 집계한다.
+ * - 엔드포인트/리포지토리 메서드별: 호출 수, SQL 실행 수, DB 시간, 읽은 행 수, N+1 의심 횟수
+ * - 한 요청 안에서 같은 모양(파라미터만 다른)의 SQL 이 n-plus-one-threshold 번 이상 실행되면 N+1 로 기록한다.
+ *   JDBC 배치 실행과 bulkOperation 안에서 실행된 SQL(청크마다 같은 문장을 반복)은 N+1 판정에서 뺀다.
+ * 요청/리포지토리 정보는 스레드 로컬에 두므로, 다른 스레드에서 실행된 SQL 은 "unattributed" 로 잡힌다.
+ */
+@Slf4j
+@Component
+public class SqlMetrics {
+
+    private static final String UNATTRIBUTED = "unattributed";
+    private static final int MAX_INCIDENTS = 100;
+    private static final Pattern LITERALS = Pattern.compile("'[^']*'|\\b\\d+\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final int nPlusOneThreshold;
+    private final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+    private final Deque<NPlusOneIncident> incidents = new ConcurrentLinkedDeque<>();
+    private final ThreadLocal<RequestContext> currentRequest = new ThreadLocal<>();
+    private final ThreadLocal<Deque<String>> repositoryStack = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public SqlMetrics(@Value("${sql.metrics.n-plus-one-threshold:5}") int nPlusOneThreshold) {
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    public void beginRequest(String endpoint) {
+        currentRequest.set(new RequestContext(endpoint));
+        stats(endpoint).invocations.increment();
+    }
+
+    public void endRequest() {
+        RequestContext request = currentRequest.get();
+        currentRequest.remove();
+        if (request == null) {
+            return;
+        }
+        request.shapeCounts.forEach((shape, count) -> {
+            if (count >= nPlusOneThreshold) {
+                stats(request.endpoint).nPlusOneSuspects.increment();
+                incidents.addFirst(new NPlusOneIncident(request.endpoint, shape, count));
+                while (incidents.size() > MAX_INCIDENTS) {
+                    incidents.pollLast();
+                }
+                log.warn("N+1 의심: {} 에서 같은 SQL 이 {}번 실행됨: {}", request.endpoint, count, shape);
+            }
+        });
+    }
+
+    /**
+     * 현재 요청에서 지금까지 SQL 실행에 쓴 시간. 요청 밖이면 -1
+     */
+    public long currentRequestDbNanos() {
+        RequestContext request = currentRequest.get();
+        return request == null ? -1 : request.dbNanos;
+    }
+
+    public void enterRepository(String method) {
+        repositoryStack.get().push(method);
+        stats(method).invocations.increment();
+    }
+
+    public void exitRepository() {
+        Deque<String> stack = repositoryStack.get();
+        stack.poll();
+        if (stack.isEmpty()) {
+            repositoryStack.remove();
+        }
+    }
+
+    /**
+     * 청크 단위 벌크 작업처럼 같은 모양의 SQL 을 일부러 반복하는 작업을 실행한다.
+     * 안에서 실행된 SQL 도 집계하지만 N+1 판정에서는 뺀다.
+     */
+    public <T> T bulkOperation(Supplier<T> work) {
+        RequestContext request = currentRequest.get();
+        if (request == null) {
+            return work.get();
+        }
+        request.bulkDepth++;
+        try {
+            return work.get();
+        } finally {
+            request.bulkDepth--;
+        }
+    }
+
+    public void recordStatement(String sql, long elapsedNanos) {
+        record(sql, elapsedNanos, true);
+    }
+
+    // executeBatch 한 번은 여러 행을 한 번에 보낸 것이므로 N+1 판정에서 뺀다.
+    public void recordBatch(String sql, long elapsedNanos) {
+        record(sql, elapsedNanos, false);
+    }
+
+    private void record(String sql, long elapsedNanos, boolean nPlusOneCandidate) {
+        for (OperationStats stats : currentStats()) {
+            stats.statements.increment();
+            stats.dbNanos.add(elapsedNanos);
+        }
+        RequestContext request = currentRequest.get();
+        if (request != null) {
+            request.dbNanos += elapsedNanos;
+            if (sql != null && nPlusOneCandidate && request.bulkDepth == 0) {
+                request.shapeCounts.merge(shapeOf(sql), 1, Integer::sum);
+            }
+        }
+    }
+
+    public void recordRow() {
+        for (OperationStats stats : currentStats()) {
+            stats.rows.increment();
+        }
+    }
+
+    // 요청과, 가장 안쪽의 리포지토리 메서드 양쪽에 기록한다.
+    private List<OperationStats> currentStats() {
+        RequestContext request = currentRequest.get();
+        String repositoryMethod = repositoryStack.get().peek();
+        if (request == null && repositoryMethod == null) {
+            return List.of(stats(UNATTRIBUTED));
+        }
+        List<OperationStats> result = new ArrayList<>(2);
+        if (request != null) {
+            result.add(stats(request.endpoint));
+        }
+        if (repositoryMethod != null) {
+            result.add(stats(repositoryMethod));
+        }
+        return result;
+    }
+
+    private OperationStats stats(String operation) {
+        return operations.computeIfAbsent(operation, key -> new OperationStats());
+    }
+
+    // 파라미터 바인딩(?)이 아닌 리터럴도 같은 모양으로 본다.
+    static String shapeOf(String sql) {
+        return WHITESPACE.matcher(LITERALS.matcher(sql).replaceAll("?")).replaceAll(" ").trim();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> byOperation = new TreeMap<>();
+        operations.forEach((operation, stats) -> byOperation.put(operation, stats.toMap()));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("operations", byOperation);
+        result.put("nPlusOneIncidents", List.copyOf(incidents));
+        return result;
+    }
+
+    private static class RequestContext {
+        private final String endpoint;
+        private final Map<String, Integer> shapeCounts = new HashMap<>();
+        private long dbNanos;
+        private int bulkDepth;
+
+        RequestContext(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    private static class OperationStats {
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder dbNanos = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder nPlusOneSuspects = new LongAdder();
+
+        Map<String, Long> toMap() {
+            Map<String, Long> map = new LinkedHashMap<>();
+            map.put("invocations", invocations.sum());
+            map.put("statements", statements.sum());
+            map.put("dbMillis", TimeUnit.NANOSECONDS.toMillis(dbNanos.sum()));
+            map.put("rows", rows.sum());
+            map.put("nPlusOneSuspects", nPlusOneSuspects.sum());
+            return map;
+        }
+    }
+
+    public record NPlusOneIncident(String endpoint, String sql, int count) {
+    }
+}
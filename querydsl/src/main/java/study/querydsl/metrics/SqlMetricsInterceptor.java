@@ -0,0 +1,38 @@
+package study.querydsl.metrics;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * 요청을 처리하는 컨트롤러 메서드 이름(MemberController.searchMemberV1 등)을 SQL 집계의 단위로 건다.
+ * 비동기 응답(스트리밍)은 요청 스레드를 떠날 때 정리하고, 비동기 디스패치는 새 요청으로 세지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class SqlMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private final SqlMetrics sqlMetrics;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.ASYNC && handler instanceof HandlerMethod handlerMethod) {
+            sqlMetrics.beginRequest(handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        sqlMetrics.endRequest();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        sqlMetrics.endRequest();
+    }
+}
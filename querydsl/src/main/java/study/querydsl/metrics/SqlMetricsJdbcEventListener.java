@@ -0,0 +1,37 @@
+package study.querydsl.metrics;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 리스너. 빈으로 등록하면 p6spy-spring-boot-starter 가 데이터소스에 연결해 준다.
+ */
+@Component
+@RequiredArgsConstructor
+public class SqlMetricsJdbcEventListener extends SimpleJdbcEventListener {
+
+    private final SqlMetrics sqlMetrics;
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        sqlMetrics.recordStatement(statementInformation.getSql(), timeElapsedNanos);
+    }
+
+    // 기본 구현은 onAfterAnyExecute 로 넘기므로, 배치는 여기서 따로 기록한다.
+    @Override
+    public void onAfterExecuteBatch(StatementInformation statementInformation, long timeElapsedNanos, int[] updateCounts, SQLException e) {
+        sqlMetrics.recordBatch(statementInformation.getSql(), timeElapsedNanos);
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext, SQLException e) {
+        if (hasNext) {
+            sqlMetrics.recordRow();
+        }
+    }
+}
@@ -2,16 +2,23 @@ package study.querydsl.repository;
 
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.QTeam;
 import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
@@ -21,6 +28,10 @@ import static study.querydsl.entity.QTeam.team;
 @Repository
 public class MemberJpaRepository {
 
+    private static final String HINT_FETCH_SIZE = "org.hibernate.fetchSize";
+    // 팀명 조건 서브쿼리용 별칭 (조인한 team 과 구분)
+    private static final QTeam teamSub = new QTeam("teamSub");
+
     // 순수 JPA에서는 EntityManager가 필요하다.
     private final EntityManager em;
     // Querydsl을 사용하기 위해서는 JPAQueryFactory가 필요하다.
@@ -36,6 +47,29 @@ public class MemberJpaRepository {
         em.persist(member);
     }
 
+    /**
+     * 팀 id 로 회원을 저장한다. 팀 이름(비정규화)을 맞추기 위해 팀 한 건만 읽고, 팀의 members 컬렉션은 읽지 않는다.
+     */
+    public void saveInTeam(Member member, Long teamId) {
+        member.changeTeam(em.getReference(Team.class, teamId));
+        em.persist(member);
+    }
+
+    /**
+     * 회원을 다른 팀으로 옮긴다. 팀의 회원 수에 상관없이 회원과 팀 한 건씩만 읽는다.
+     * 회원이나 팀이 없으면 옮기지 않고 false 를 돌려준다.
+     */
+    public boolean moveToTeam(Long memberId, Long teamId) {
+        Member member = em.find(Member.class, memberId);
+        // 팀 이름(비정규화)을 맞추려면 어차피 팀을 읽으므로, 프록시 대신 find 로 없는 팀을 여기서 거른다.
+        Team team = em.find(Team.class, teamId);
+        if (member == null || team == null) {
+            return false;
+        }
+        member.changeTeam(team);
+        return true;
+    }
+
     public Optional<Member> findById(Long id) {
         Member findMember = em.find(Member.class, id);
         return Optional.ofNullable(findMember); // null 일수도 있기에
@@ -121,12 +155,52 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    /**
+     * search 의 스트리밍 버전
+     * 결과를 List 로 모으지 않고, JDBC fetch size 단위로 커서를 넘기며 한 건씩 consumer 에 넘긴다.
+     * 스트림이 열려 있는 동안 커넥션을 잡고 있어야 하므로 트랜잭션 안에서 끝까지 소비한다.
+     * @return 넘긴 건수
+     */
+    @Transactional(readOnly = true)
+    public long searchStream(MemberSearchCondition condition, int fetchSize, Consumer<MemberTeamDto> consumer) {
+        long count = 0;
+        try (Stream<MemberTeamDto> stream = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()))
+                .setHint(HINT_FETCH_SIZE, fetchSize)
+                .stream()) {
+
+            Iterator<MemberTeamDto> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                // DTO 조회는 영속성 컨텍스트에 올라가지 않으므로 em.clear() 할 필요가 없다.
+                // (호출한 쪽의 트랜잭션에 합류했다면 그쪽의 flush 안 된 엔티티까지 떼어내게 된다)
+                consumer.accept(iterator.next());
+                count++;
+            }
+        }
+        return count;
+    }
+
     private BooleanExpression usernameEq(String username) {
         return hasText(username) ? member.username.eq(username) : null;
     }
 
+    // 인덱스를 타도록 team_id 를 서브쿼리로 고른다. (이유는 MemberRepositoryImpl.teamNameEq 참고)
     private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+        return hasText(teamName)
+                ? member.team.id.in(JPAExpressions.select(teamSub.id).from(teamSub).where(teamSub.name.eq(teamName)))
+                : null;
     }
 
     private BooleanExpression ageGoe(Integer ageGoe) {
@@ -2,6 +2,10 @@ package study.querydsl.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.querydsl.dto.BulkOperationResult;
+import study.querydsl.dto.CappedPage;
+import study.querydsl.dto.MemberCursorPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 
@@ -12,6 +16,23 @@ public interface MemberRepositoryCustom {
     List<MemberTeamDto> search(MemberSearchCondition condition);
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+    Page<MemberTeamDto> searchPageDeferredJoin(MemberSearchCondition condition, Pageable pageable);
+    Page<MemberTeamDto> searchPageParallel(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDto> searchPageCountQuery(MemberSearchCondition condition, Pageable pageable);
+    CappedPage<MemberTeamDto> searchPageCapped(MemberSearchCondition condition, Pageable pageable, long countCap);
+    List<MemberTeamDto> searchWithTemplate(MemberSearchCondition condition);
+    Page<MemberTeamDto> searchPageWithTemplate(MemberSearchCondition condition, Pageable pageable);
+    Page<MemberTeamDto> searchPageWindow(MemberSearchCondition condition, Pageable pageable);
+    Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable);
+    MemberCursorPage searchByCursor(MemberSearchCondition condition, String cursor, int size);
+
+    // 비정규화한 member.teamName 사용 (team 조인 없음)
+    List<MemberTeamDto> searchDenormalized(MemberSearchCondition condition);
+    Page<MemberTeamDto> searchPageDenormalized(MemberSearchCondition condition, Pageable pageable);
+
+    // 조건에 맞는 회원에 대한 벌크 연산, id 구간 단위로 나눠서 실행한다. 나이 변경/삭제는 청크마다 팀 집계도 함께 고친다.
+    BulkOperationResult bulkAddAge(MemberSearchCondition condition, int amount);
+    BulkOperationResult bulkDelete(MemberSearchCondition condition);
+    BulkOperationResult bulkSyncTeamName(Long teamId);
 
 }
\ No newline at end of file
@@ -1,20 +1,40 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.QueryResults;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.support.PageableExecutionUtils;
+import study.querydsl.dto.BulkOperationResult;
+import study.querydsl.dto.CappedPage;
+import study.querydsl.dto.MemberCursorPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
+import study.querydsl.entity.QTeam;
+import study.querydsl.repository.support.ChunkedBulkExecutor;
+import study.querydsl.repository.support.CountQueryBuilder;
+import study.querydsl.repository.support.MemberSearchQueryTemplates;
+import study.querydsl.repository.support.ParallelPageQueryExecutor;
+import study.querydsl.repository.support.QuerydslSortTranslator;
+import study.querydsl.repository.support.TeamStatsDelta;
+import study.querydsl.repository.support.TeamStatsSql;
 
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
@@ -23,11 +43,37 @@ import static study.querydsl.entity.QTeam.team;
 // 명명 규칙 : 인터페이스 이름 + Impl
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+    // 정렬 가능한 필드 (요청 파라미터 이름 -> 경로). 마지막에 member.id 를 붙여 순서를 고정한다.
+    // teamName 은 조인한 team.name 대신 비정규화한 member.team_name 으로 정렬한다.
+    // team 쪽 컬럼으로 정렬하면 조인 결과 전체를 filesort 해야 하지만, member 컬럼이면 idx_member_team_name_age 를 쓸 수 있고 team 조인도 필요 없다.
+    private static final QuerydslSortTranslator MEMBER_SORT = new QuerydslSortTranslator(
+            Map.<String, ComparableExpressionBase<?>>of(
+                    "memberId", member.id,
+                    "username", member.username,
+                    "age", member.age,
+                    "teamName", member.teamName),
+            member.id,
+            2);
+
+    // 팀명 조건 서브쿼리용 별칭 (조인한 team 과 구분)
+    private static final QTeam teamSub = new QTeam("teamSub");
+
+    private final EntityManager em;
     // Querydsl을 사용하기 위해서는 JPAQueryFactory가 필요하다.
     private final JPAQueryFactory queryFactory;
+    private final ParallelPageQueryExecutor parallelPageQueryExecutor;
+    private final MemberSearchQueryTemplates queryTemplates;
+    private final ChunkedBulkExecutor chunkedBulkExecutor;
 
-    public MemberRepositoryImpl(EntityManager em) {
+    public MemberRepositoryImpl(EntityManager em,
+                                ParallelPageQueryExecutor parallelPageQueryExecutor,
+                                MemberSearchQueryTemplates queryTemplates,
+                                ChunkedBulkExecutor chunkedBulkExecutor) {
+        this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.parallelPageQueryExecutor = parallelPageQueryExecutor;
+        this.queryTemplates = queryTemplates;
+        this.chunkedBulkExecutor = chunkedBulkExecutor;
     }
 
     // 회원명, 팀명, 나이(ageGoe, ageLoe)
@@ -70,6 +116,7 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe()))
+                .orderBy(MEMBER_SORT.translate(pageable.getSort())) // pageable 의 정렬 (화이트리스트 + member.id)
                 .offset(pageable.getOffset()) // 시작
                 .limit(pageable.getPageSize()) // 개수
                 .fetchResults(); // fetch()를 사용하면 반환 타입이 List이다.
@@ -104,24 +151,89 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe()))
+                .orderBy(MEMBER_SORT.translate(pageable.getSort()))
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
                 .fetch();
 
-        long total = queryFactory
-                .select(member)
+        long total = countQuery(condition).fetch();
+
+
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * 지연 조인(ID 먼저) 페이징
+     * 1. 조건에 맞는 member.id 만 정렬/offset 해서 한 페이지 분량을 고른다. (좁은 인덱스만 읽고, team 은 조인하지 않는다)
+     * 2. 고른 id 로 member.id.in(ids) 를 걸어 DTO 를 조회하고, 1번의 순서대로 다시 맞춘다.
+     * 깊은 페이지에서 offset 으로 버려지는 행들이 조인된 넓은 행이 아니라 id 뿐이어서 싸다.
+     */
+    @Override
+    public Page<MemberTeamDto> searchPageDeferredJoin(MemberSearchCondition condition, Pageable pageable) {
+        List<Long> ids = queryFactory
+                .select(member.id)
                 .from(member)
-                .leftJoin(member.team, team)
                 .where(
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetchCount();
+                        ageLoe(condition.getAgeLoe()))
+                .orderBy(MEMBER_SORT.translate(pageable.getSort()))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
 
+        List<MemberTeamDto> content = ids.isEmpty() ? List.of() : queryFactory
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(member.id.in(ids))
+                .fetch();
 
-        return new PageImpl<>(content, pageable, total);
+        // in 절은 순서를 보장하지 않으므로 1번에서 고른 순서대로 정렬한다.
+        Map<Long, Integer> order = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            order.put(ids.get(i), i);
+        }
+        List<MemberTeamDto> sorted = content.stream()
+                .sorted(Comparator.comparing(dto -> order.get(dto.getMemberId())))
+                .toList();
+
+        return PageableExecutionUtils.getPage(sorted, pageable, countQuery(condition).build()::fetchOne);
+    }
+
+    /**
+     * 복잡한 페이징의 병렬 버전
+     * 컨텐츠 쿼리와 count 쿼리를 각자의 트랜잭션에서 동시에 실행한다.
+     * 호출한 쪽의 트랜잭션에 참여하지 않으므로, 아직 커밋되지 않은 데이터는 보이지 않는다.
+     */
+    @Override
+    public Page<MemberTeamDto> searchPageParallel(MemberSearchCondition condition, Pageable pageable) {
+        return parallelPageQueryExecutor.execute(pageable,
+                () -> queryFactory
+                        .select(new QMemberTeamDto(
+                                member.id,
+                                member.username,
+                                member.age,
+                                team.id,
+                                team.name))
+                        .from(member)
+                        .leftJoin(member.team, team)
+                        .where(
+                                usernameEq(condition.getUsername()),
+                                teamNameEq(condition.getTeamName()),
+                                ageGoe(condition.getAgeGoe()),
+                                ageLoe(condition.getAgeLoe()))
+                        .orderBy(MEMBER_SORT.translate(pageable.getSort()))
+                        .offset(pageable.getOffset())
+                        .limit(pageable.getPageSize())
+                        .fetch(),
+                () -> countQuery(condition).fetch());
     }
 
     @Override
@@ -140,31 +252,391 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe()))
+                .orderBy(MEMBER_SORT.translate(pageable.getSort()))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        JPAQuery<Long> countQuery = countQuery(condition).build();
+
+        // countQuery.fetchOne()이 호출되는 시점에 쿼리가 실행된다.
+        // 첫 페이지인데 컨텐츠가 페이지 크기보다 적거나, 마지막 페이지라면 count 쿼리를 생략한다.
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+    }
+
+    /**
+     * 전체 개수를 상한(countCap)까지만 세는 페이징
+     * 조건이 넓으면 정확한 count 가 컨텐츠 쿼리보다 느리다.
+     * 상한 위치(와 현재 페이지 끝 중 뒤쪽)에 행이 하나라도 있는지만 확인하고, 있으면 정확한 count 없이 하한값을 돌려준다.
+     * 없으면 남은 행이 상한보다 적으므로 정확한 count 를 해도 싸다.
+     */
+    @Override
+    public CappedPage<MemberTeamDto> searchPageCapped(MemberSearchCondition condition, Pageable pageable, long countCap) {
+        List<MemberTeamDto> content = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()))
+                .orderBy(MEMBER_SORT.translate(pageable.getSort()))
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
                 .fetch();
 
-        JPAQuery<Member> countQuery = queryFactory
-                .selectFrom(member)
+        // 첫 페이지가 덜 찼다면 그게 전부다.
+        if (pageable.getOffset() == 0 && content.size() < pageable.getPageSize()) {
+            return new CappedPage<>(content, pageable, content.size(), false);
+        }
+
+        // 팀명 조건은 member.team.id 서브쿼리이므로 행 존재만 보는 probe 는 team 을 조인하지 않는다.
+        long probeOffset = Math.max(countCap, pageable.getOffset() + pageable.getPageSize());
+        Long beyondCap = queryFactory
+                .select(member.id)
+                .from(member)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()))
+                .offset(probeOffset)
+                .fetchFirst();
+
+        if (beyondCap == null) {
+            return new CappedPage<>(content, pageable, countQuery(condition).fetch(), false);
+        }
+        // probeOffset 번째 행이 있으므로 최소 probeOffset + 1 건이다.
+        return new CappedPage<>(content, pageable, probeOffset + 1, true);
+    }
+
+    /**
+     * count 쿼리, select count(member.id)
+     * 팀명 조건이 없으면 team 조인을 빼고 member 테이블만 센다.
+     */
+    private CountQueryBuilder countQuery(MemberSearchCondition condition) {
+        return CountQueryBuilder.count(queryFactory, member, member.id)
                 .leftJoin(member.team, team)
                 .where(
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                );
+                        ageLoe(condition.getAgeLoe()));
+    }
+
+    /**
+     * 조건 모양별로 캐시된 JPQL 을 사용하는 검색
+     * Querydsl 표현식 트리를 매번 만들고 직렬화하는 대신, 파라미터 값만 바인딩한다.
+     * 목록은 member.id 순서이고, 페이징은 pageable 의 정렬을 MEMBER_SORT 와 같은 화이트리스트로 붙인다.
+     */
+    @Override
+    public List<MemberTeamDto> searchWithTemplate(MemberSearchCondition condition) {
+        return queryTemplates.contentQuery(em, condition).getResultList();
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageWithTemplate(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> content = queryTemplates.contentQuery(em, condition, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
 
-        // countQuery.fetchCount()가 호출되는 시점에 쿼리가 실행된다.
-        return PageableExecutionUtils.getPage(content, pageable, () -> countQuery.fetchCount());
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> queryTemplates.countQuery(em, condition).getSingleResult());
     }
 
+    /**
+     * 한 번의 왕복으로 컨텐츠와 전체 개수를 가져오는 페이징
+     * count(*) over () 윈도우 컬럼으로 전체 개수를 함께 받아서 첫 행에서 읽는다.
+     * 페이지가 비어 있을 때만(전체보다 뒤쪽 페이지) 따로 count 쿼리를 날린다.
+     * 정렬은 템플릿 페이징과 같다. (화이트리스트 + member.id)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Page<MemberTeamDto> searchPageWindow(MemberSearchCondition condition, Pageable pageable) {
+        List<Object[]> rows = queryTemplates.windowPageQuery(em, condition, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        if (rows.isEmpty()) {
+            long total = pageable.getOffset() == 0 ? 0 : queryTemplates.countQuery(em, condition).getSingleResult();
+            return new PageImpl<>(List.of(), pageable, total);
+        }
+
+        List<MemberTeamDto> content = rows.stream()
+                .map(row -> new MemberTeamDto(
+                        ((Number) row[0]).longValue(),
+                        (String) row[1],
+                        ((Number) row[2]).intValue(),
+                        row[3] == null ? null : ((Number) row[3]).longValue(),
+                        (String) row[4]))
+                .toList();
+        long total = ((Number) rows.get(0)[5]).longValue();
+
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * Slice 페이징, count 쿼리를 날리지 않는다.
+     * 페이지 크기 + 1 건을 조회해서, 한 건이 더 있으면 다음 페이지가 있다고 판단한다. (무한 스크롤용)
+     */
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> content = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()))
+                .orderBy(MEMBER_SORT.translate(pageable.getSort()))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1)
+                .fetch();
+
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = content.subList(0, pageable.getPageSize());
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    /**
+     * 커서(keyset) 페이징
+     * offset 대신 마지막으로 본 member.id 이후부터 조회하므로, 몇 번째 페이지든 인덱스(PK)를 타고 size + 1 건만 읽는다.
+     * size + 1 건을 가져와서 다음 페이지 존재 여부를 count 쿼리 없이 판단한다.
+     */
+    @Override
+    public MemberCursorPage searchByCursor(MemberSearchCondition condition, String cursor, int size) {
+        Long lastMemberId = MemberCursorPage.decodeCursor(cursor);
+
+        List<MemberTeamDto> content = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        memberIdGt(lastMemberId),
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()))
+                .orderBy(member.id.asc()) // 커서 키는 유일해야 페이지 경계에서 누락/중복이 없다.
+                .limit(size + 1)
+                .fetch();
+
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = content.subList(0, size);
+        }
+        Long nextMemberId = content.isEmpty() ? null : content.get(content.size() - 1).getMemberId();
+
+        return new MemberCursorPage(content, nextMemberId, hasNext);
+    }
+
+    /**
+     * 비정규화한 member.teamName 으로 거르고 조회한다. team 을 조인하지 않고 member 테이블만 읽는다.
+     * (팀 이름 변경은 비동기로 반영되므로, 이름이 바뀐 직후에는 잠시 이전 이름으로 조회될 수 있다)
+     */
+    @Override
+    public List<MemberTeamDto> searchDenormalized(MemberSearchCondition condition) {
+        return queryFactory
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        member.team.id, // FK 컬럼이므로 조인하지 않는다.
+                        member.teamName))
+                .from(member)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        denormalizedTeamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()))
+                .fetch();
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageDenormalized(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> content = queryFactory
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        member.team.id,
+                        member.teamName))
+                .from(member)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        denormalizedTeamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()))
+                .orderBy(MEMBER_SORT.translate(pageable.getSort()))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        CountQueryBuilder countQuery = CountQueryBuilder.count(queryFactory, member, member.id)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        denormalizedTeamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()));
+
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetch);
+    }
+
+    /**
+     * member.teamName 을 팀의 실제 이름으로 다시 맞춘다. teamId 가 null 이면 모든 팀이 대상이다.
+     */
+    @Override
+    public BulkOperationResult bulkSyncTeamName(Long teamId) {
+        return chunkedBulkExecutor.execute("syncTeamName", Member.class,
+                (lastId, chunkSize) -> queryFactory
+                        .select(member.id)
+                        .from(member)
+                        .where(memberIdGt(lastId), teamIdEqOrAssigned(teamId))
+                        .orderBy(member.id.asc())
+                        .offset(chunkSize - 1)
+                        .limit(1)
+                        .fetchOne(),
+                (lastId, upperId) -> queryFactory
+                        .update(member)
+                        .set(member.teamName, JPAExpressions
+                                .select(teamSub.name)
+                                .from(teamSub)
+                                .where(teamSub.id.eq(member.team.id)))
+                        .where(memberIdGt(lastId), memberIdLoe(upperId), teamIdEqOrAssigned(teamId))
+                        .execute());
+    }
+
+    private BooleanExpression teamIdEqOrAssigned(Long teamId) {
+        return teamId != null ? member.team.id.eq(teamId) : member.team.isNotNull();
+    }
+
+    /**
+     * 조건에 맞는 회원의 나이를 amount 만큼 더한다.
+     * 한 문장으로 테이블을 잠그지 않도록 id 구간 단위로 나눠서 update 하고, 영속성 컨텍스트의 해당 회원은 detach 된다.
+     */
+    @Override
+    public BulkOperationResult bulkAddAge(MemberSearchCondition condition, int amount) {
+        return chunkedBulkExecutor.execute("addAge", Member.class,
+                (lastId, chunkSize) -> chunkBoundary(condition, lastId, chunkSize),
+                (lastId, upperId) -> {
+                    Map<Long, TeamStatsDelta> deltas = new HashMap<>();
+                    for (Tuple tuple : teamAggregates(condition, lastId, upperId)) {
+                        deltas.computeIfAbsent(tuple.get(0, Long.class), key -> new TeamStatsDelta())
+                                .shiftAges(tuple.get(1, Number.class).longValue() * amount);
+                    }
+                    long affected = queryFactory
+                            .update(member)
+                            .set(member.age, member.age.add(amount))
+                            .where(chunkTarget(condition, lastId, upperId))
+                            .execute();
+                    applyTeamStats(deltas);
+                    return affected;
+                });
+    }
+
+    @Override
+    public BulkOperationResult bulkDelete(MemberSearchCondition condition) {
+        return chunkedBulkExecutor.execute("delete", Member.class,
+                (lastId, chunkSize) -> chunkBoundary(condition, lastId, chunkSize),
+                (lastId, upperId) -> {
+                    Map<Long, TeamStatsDelta> deltas = new HashMap<>();
+                    for (Tuple tuple : teamAggregates(condition, lastId, upperId)) {
+                        deltas.computeIfAbsent(tuple.get(0, Long.class), key -> new TeamStatsDelta())
+                                .removeAll(tuple.get(1, Number.class).longValue(), tuple.get(2, Number.class).longValue());
+                    }
+                    long affected = queryFactory
+                            .delete(member)
+                            .where(chunkTarget(condition, lastId, upperId))
+                            .execute();
+                    applyTeamStats(deltas);
+                    return affected;
+                });
+    }
+
+    // 청크 대상 회원을 팀별로 센다. (회원 수, 나이 합) 지워질 회원도 세야 하므로 벌크 문장보다 먼저 실행한다.
+    private List<Tuple> teamAggregates(MemberSearchCondition condition, Long lastId, Long upperId) {
+        return queryFactory
+                .select(member.team.id, member.count(), member.age.sum())
+                .from(member)
+                .where(member.team.isNotNull())
+                .where(chunkTarget(condition, lastId, upperId))
+                .groupBy(member.team.id)
+                .fetch();
+    }
+
+    // 벌크 문장은 TeamStatsTracker 가 볼 수 없으므로, 같은 청크 트랜잭션에서 팀 집계를 직접 증감한다.
+    private void applyTeamStats(Map<Long, TeamStatsDelta> deltas) {
+        if (!deltas.isEmpty()) {
+            em.unwrap(Session.class).doWork(connection -> TeamStatsSql.apply(connection, deltas));
+        }
+    }
+
+    private BooleanExpression[] chunkTarget(MemberSearchCondition condition, Long lastId, Long upperId) {
+        return new BooleanExpression[]{
+                memberIdGt(lastId),
+                memberIdLoe(upperId),
+                usernameEq(condition.getUsername()),
+                teamNameEq(condition.getTeamName()),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe())};
+    }
+
+    // lastId 이후로 chunkSize 번째 대상 회원의 id, 그 id 까지가 한 청크다. (PK 순으로 읽으므로 커서 페이징과 같은 비용)
+    private Long chunkBoundary(MemberSearchCondition condition, Long lastId, int chunkSize) {
+        return queryFactory
+                .select(member.id)
+                .from(member)
+                .where(chunkTarget(condition, lastId, null))
+                .orderBy(member.id.asc())
+                .offset(chunkSize - 1)
+                .limit(1)
+                .fetchOne();
+    }
+
+    private BooleanExpression memberIdLoe(Long upperMemberId) {
+        return upperMemberId != null ? member.id.loe(upperMemberId) : null;
+    }
+
+    private BooleanExpression memberIdGt(Long lastMemberId) {
+        return lastMemberId != null ? member.id.gt(lastMemberId) : null;
+    }
 
     private BooleanExpression usernameEq(String username) {
         return hasText(username) ? member.username.eq(username) : null;
     }
 
+    // team.name 으로 거르지 않고 team_id 를 서브쿼리로 고른다.
+    // left join 한 team 에 조건을 걸면 DB 가 member 부터 읽어야 하지만, 이렇게 하면 idx_team_name -> idx_member_team_age 순으로 인덱스를 탄다.
     private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+        return hasText(teamName)
+                ? member.team.id.in(JPAExpressions.select(teamSub.id).from(teamSub).where(teamSub.name.eq(teamName)))
+                : null;
+    }
+
+    private BooleanExpression denormalizedTeamNameEq(String teamName) {
+        return hasText(teamName) ? member.teamName.eq(teamName) : null;
     }
 
     private BooleanExpression ageGoe(Integer ageGoe) {
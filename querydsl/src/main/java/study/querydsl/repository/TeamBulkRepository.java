@@ -0,0 +1,57 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Repository;
+import study.querydsl.dto.BulkOperationResult;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.ChunkedBulkExecutor;
+
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 팀 벌크 연산
+ * 엔티티 이벤트가 없으므로 청크마다 BulkChangedEvent(Team) 가 발행되고, 비정규화한 member.teamName 은
+ * TeamNameSynchronizer 가 커밋 이후에 맞춘다.
+ */
+@Repository
+public class TeamBulkRepository {
+
+    private final JPAQueryFactory queryFactory;
+    private final ChunkedBulkExecutor chunkedBulkExecutor;
+
+    public TeamBulkRepository(EntityManager em, ChunkedBulkExecutor chunkedBulkExecutor) {
+        this.queryFactory = new JPAQueryFactory(em);
+        this.chunkedBulkExecutor = chunkedBulkExecutor;
+    }
+
+    /**
+     * 이름이 fromPrefix 로 시작하는 팀의 접두사를 toPrefix 로 바꾼다. (idx_team_name 범위 검색)
+     */
+    public BulkOperationResult bulkRenamePrefix(String fromPrefix, String toPrefix) {
+        return chunkedBulkExecutor.execute("renameTeamPrefix", Team.class,
+                (lastId, chunkSize) -> queryFactory
+                        .select(team.id)
+                        .from(team)
+                        .where(teamIdGt(lastId), team.name.startsWith(fromPrefix))
+                        .orderBy(team.id.asc())
+                        .offset(chunkSize - 1)
+                        .limit(1)
+                        .fetchOne(),
+                (lastId, upperId) -> queryFactory
+                        .update(team)
+                        .set(team.name, Expressions.asString(toPrefix).concat(team.name.substring(fromPrefix.length())))
+                        .where(teamIdGt(lastId), teamIdLoe(upperId), team.name.startsWith(fromPrefix))
+                        .execute());
+    }
+
+    private BooleanExpression teamIdGt(Long lastTeamId) {
+        return lastTeamId != null ? team.id.gt(lastTeamId) : null;
+    }
+
+    private BooleanExpression teamIdLoe(Long upperTeamId) {
+        return upperTeamId != null ? team.id.loe(upperTeamId) : null;
+    }
+}
@@ -0,0 +1,87 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import study.querydsl.dto.TeamMembersDto;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.support.QuerydslSortTranslator.requireUnsorted;
+
+/**
+ * 팀 + 회원 목록 페이징
+ * 컬렉션 페치 조인은 DB 에서 페이징할 수 없고, 지연 로딩은 팀마다 쿼리가 나가므로(N+1) 두 단계로 나눠 조회한다.
+ * 1. 팀만 id 순으로 페이징한다.
+ * 2. 그 페이지의 팀 id 들로 회원을 IN 쿼리로 한 번에 가져온다. (member-batch-size 개씩)
+ * 팀 수와 상관없이 쿼리 수는 2 + ceil(페이지 크기 / member-batch-size) 로 일정하다. (마지막 페이지면 count 쿼리는 생략)
+ */
+@Repository
+public class TeamQueryRepository {
+
+    // 팀마다 회원을 memberLimit 건까지만 가져온다.
+    // 팀의 전체 회원 수는 여기서 세지 않고 유지되는 team.member_count 를 쓴다. (count(*) over 는 팀의 회원을 전부 읽는다)
+    private static final String MEMBERS_SQL = "select member_id, username, age, team_id from ("
+            + " select m.member_id, m.username, m.age, m.team_id,"
+            + " row_number() over (partition by m.team_id order by m.member_id) as rn"
+            + " from member m where m.team_id in (:teamIds)) ranked"
+            + " where rn <= :memberLimit"
+            + " order by team_id, member_id";
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final int memberBatchSize;
+
+    public TeamQueryRepository(EntityManager em,
+                               @Value("${teams.member-batch-size:100}") int memberBatchSize) {
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+        this.memberBatchSize = memberBatchSize;
+    }
+
+    // 팀은 항상 id 순으로 정렬한다. 정렬 조건이 오면 무시하지 않고 거절한다. (400)
+    public Page<TeamMembersDto> findTeamsWithMembers(Pageable pageable, int memberLimit) {
+        requireUnsorted(pageable.getSort());
+        List<TeamMembersDto> content = queryFactory
+                .select(team.id, team.name, team.memberCount)
+                .from(team)
+                .orderBy(team.id.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch()
+                .stream()
+                .map(tuple -> new TeamMembersDto(tuple.get(team.id), tuple.get(team.name), tuple.get(team.memberCount)))
+                .toList();
+
+        Map<Long, TeamMembersDto> teamsById = new LinkedHashMap<>();
+        content.forEach(dto -> teamsById.put(dto.getTeamId(), dto));
+        List<Long> teamIds = List.copyOf(teamsById.keySet());
+        for (int from = 0; from < teamIds.size(); from += memberBatchSize) {
+            loadMembers(teamIds.subList(from, Math.min(teamIds.size(), from + memberBatchSize)), memberLimit, teamsById);
+        }
+
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> queryFactory.select(team.count()).from(team).fetchOne());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loadMembers(List<Long> teamIds, int memberLimit, Map<Long, TeamMembersDto> teamsById) {
+        List<Object[]> rows = em.createNativeQuery(MEMBERS_SQL)
+                .setParameter("teamIds", teamIds)
+                .setParameter("memberLimit", memberLimit)
+                .getResultList();
+        for (Object[] row : rows) {
+            teamsById.get(((Number) row[3]).longValue()).addMember(
+                    ((Number) row[0]).longValue(),
+                    (String) row[1],
+                    ((Number) row[2]).intValue());
+        }
+    }
+}
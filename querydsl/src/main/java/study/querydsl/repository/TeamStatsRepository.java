@@ -0,0 +1,108 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.dto.TeamStatsReconciliation;
+import study.querydsl.repository.support.TeamStatsSql;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.support.QuerydslSortTranslator.requireUnsorted;
+
+/**
+ * 팀별 회원 집계 조회와 점검
+ * 집계는 team 에 유지하므로(TeamStatsTracker, 벌크 연산) 조회는 팀 수만큼만 읽는다.
+ * 점검(reconcile)은 member 전체를 팀별로 다시 집계해서 유지하던 값과 비교한다.
+ */
+@Slf4j
+@Repository
+public class TeamStatsRepository {
+
+    // 어긋난 팀은 로그에 이 수만큼만 자세히 남긴다.
+    private static final int LOGGED_MISMATCHES = 10;
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+
+    public TeamStatsRepository(EntityManager em) {
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+    }
+
+    // 팀은 항상 id 순으로 정렬한다. 정렬 조건이 오면 무시하지 않고 거절한다. (400)
+    public Page<TeamStatsDto> findTeamStats(Pageable pageable) {
+        requireUnsorted(pageable.getSort());
+        List<TeamStatsDto> content = queryFactory
+                .select(Projections.constructor(TeamStatsDto.class,
+                        team.id, team.name, team.memberCount, team.ageSum, team.minAge, team.maxAge))
+                .from(team)
+                .orderBy(team.id.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> queryFactory.select(team.count()).from(team).fetchOne());
+    }
+
+    @Transactional
+    public TeamStatsReconciliation reconcile(boolean repair) {
+        long start = System.nanoTime();
+
+        Map<Long, Tuple> actual = new HashMap<>();
+        queryFactory
+                .select(member.team.id, member.count(), member.age.sum(), member.age.min(), member.age.max())
+                .from(member)
+                .where(member.team.isNotNull())
+                .groupBy(member.team.id)
+                .fetch()
+                .forEach(tuple -> actual.put(tuple.get(0, Long.class), tuple));
+
+        List<Tuple> maintained = queryFactory
+                .select(team.id, team.memberCount, team.ageSum, team.minAge, team.maxAge)
+                .from(team)
+                .fetch();
+
+        List<Long> mismatched = new ArrayList<>();
+        for (Tuple row : maintained) {
+            Long teamId = row.get(team.id);
+            Tuple expected = actual.get(teamId);
+            long memberCount = expected == null ? 0 : expected.get(1, Number.class).longValue();
+            long ageSum = expected == null ? 0 : expected.get(2, Number.class).longValue();
+            Integer minAge = expected == null ? null : expected.get(3, Number.class).intValue();
+            Integer maxAge = expected == null ? null : expected.get(4, Number.class).intValue();
+            if (memberCount != row.get(team.memberCount) || ageSum != row.get(team.ageSum)
+                    || !Objects.equals(minAge, row.get(team.minAge)) || !Objects.equals(maxAge, row.get(team.maxAge))) {
+                if (mismatched.size() < LOGGED_MISMATCHES) {
+                    log.warn("팀 집계 불일치: teamId={}, 유지값=[{}, {}, {}, {}], 실제=[{}, {}, {}, {}]", teamId,
+                            row.get(team.memberCount), row.get(team.ageSum), row.get(team.minAge), row.get(team.maxAge),
+                            memberCount, ageSum, minAge, maxAge);
+                }
+                mismatched.add(teamId);
+            }
+        }
+
+        // 비교한 값을 그대로 쓰지 않고 문장 안에서 다시 집계한다. (그 사이 커밋된 증감을 덮어쓰지 않도록)
+        boolean repaired = repair && !mismatched.isEmpty();
+        if (repaired) {
+            em.unwrap(Session.class).doWork(connection -> TeamStatsSql.recompute(connection, mismatched));
+        }
+        return new TeamStatsReconciliation(maintained.size(), mismatched, repaired, System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,118 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.BulkOperationResult;
+import study.querydsl.event.BulkChangedEvent;
+import study.querydsl.metrics.SqlMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 벌크 update/delete 를 id 구간(청크) 단위로 나눠 실행한다.
+ * - 청크마다 트랜잭션을 끊으므로 한 문장이 테이블 전체를 오래 잠그거나 undo 로그를 크게 쌓지 않는다.
+ *   (이미 트랜잭션 안에서 호출하면 그 트랜잭션에 합류하므로, 이 경우에는 잠금이 커밋까지 유지된다.)
+ * - 청크 전에 flush() 해서 쓰기 지연 중인 변경을 먼저 반영하고,
+ *   청크 후에는 영속성 컨텍스트에서 그 id 구간의 엔티티를 detach 해서 낡은 값이 남지 않게 한다.
+ * - 청크마다 BulkChangedEvent 를 발행한다. (벌크 연산은 엔티티 이벤트가 없다)
+ * - 청크마다 같은 모양의 SQL 을 반복하므로 N+1 판정에서 뺀다. (SqlMetrics.bulkOperation)
+ */
+@Slf4j
+@Component
+public class ChunkedBulkExecutor {
+
+    /**
+     * lastId 다음부터 chunkSize 번째 대상 행의 id. 남은 행이 chunkSize 보다 적으면 null
+     */
+    @FunctionalInterface
+    public interface ChunkBoundary {
+        Long next(Long lastId, int chunkSize);
+    }
+
+    /**
+     * lastId < id <= upperId 인 대상 행에 문장을 실행하고 영향받은 행 수를 돌려준다. null 이면 해당 방향으로 제한 없음
+     */
+    @FunctionalInterface
+    public interface ChunkStatement {
+        long execute(Long lastId, Long upperId);
+    }
+
+    private record Chunk(Long upperId, long rows) {
+    }
+
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SqlMetrics sqlMetrics;
+    private final int chunkSize;
+
+    public ChunkedBulkExecutor(EntityManager em,
+                               PlatformTransactionManager transactionManager,
+                               ApplicationEventPublisher eventPublisher,
+                               SqlMetrics sqlMetrics,
+                               @Value("${member.bulk.chunk-size:1000}") int chunkSize) {
+        this.em = em;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.sqlMetrics = sqlMetrics;
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkOperationResult execute(String operation, Class<?> entityType,
+                                       ChunkBoundary boundary, ChunkStatement statement) {
+        return sqlMetrics.bulkOperation(() -> executeChunks(operation, entityType, boundary, statement));
+    }
+
+    private BulkOperationResult executeChunks(String operation, Class<?> entityType,
+                                              ChunkBoundary boundary, ChunkStatement statement) {
+        long start = System.nanoTime();
+        long rows = 0;
+        int chunks = 0;
+        Long lastId = null;
+        boolean last;
+
+        do {
+            Long from = lastId;
+            Chunk chunk = transactionTemplate.execute(status -> {
+                em.flush();
+                Long upperId = boundary.next(from, chunkSize);
+                long affected = statement.execute(from, upperId);
+                evict(entityType, from, upperId);
+                // 트랜잭션 안에서 발행하므로 캐시/인덱스는 커밋 이후에 반영한다.
+                eventPublisher.publishEvent(new BulkChangedEvent(entityType));
+                return new Chunk(upperId, affected);
+            });
+            lastId = chunk.upperId();
+            rows += chunk.rows();
+            chunks++;
+            last = lastId == null;
+        } while (!last);
+
+        BulkOperationResult result = new BulkOperationResult(operation, rows, chunks, System.nanoTime() - start);
+        log.info("bulk {}: {} rows in {} chunks, {}ms ({} rows/sec)",
+                operation, rows, chunks, result.elapsedMillis(), result.rowsPerSecond());
+        return result;
+    }
+
+    // 벌크 연산은 영속성 컨텍스트를 거치지 않으므로, 구간 안의 엔티티를 직접 떼어낸다.
+    private void evict(Class<?> entityType, Long lastId, Long upperId) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        List<Object> affected = new ArrayList<>();
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            if (entityType.isInstance(entry.getKey()) && entry.getValue().getId() instanceof Long id
+                    && (lastId == null || id > lastId) && (upperId == null || id <= upperId)) {
+                affected.add(entry.getKey());
+            }
+        }
+        affected.forEach(em::detach);
+    }
+}
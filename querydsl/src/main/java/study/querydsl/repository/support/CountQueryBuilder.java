@@ -0,0 +1,169 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.*;
+import com.querydsl.core.types.dsl.CollectionPathBase;
+import com.querydsl.core.types.dsl.SimpleExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 페이징용 count 쿼리 빌더
+ * - select count(key) 로 조회한다. (deprecated 된 fetchCount() 처럼 쿼리를 감싸지 않는다)
+ * - where 조건이 참조하지 않는 left join 은 뺀다. (조건이 참조하는 join 이 거쳐 가는 join 은 남긴다)
+ *   ManyToOne/OneToOne 처럼 대상이 하나인 연관관계의 left join 은 행 수를 바꾸지 않으므로, 조건에 쓰이지 않으면 count 에는 필요 없다.
+ *   (컬렉션 left join 은 행 수를 늘리므로, 조건이 한 건 이하로 좁히는 경우가 아니면 이 빌더로 넘기면 안 된다)
+ *
+ * <pre>
+ * CountQueryBuilder.count(queryFactory, member, member.id)
+ *         .leftJoin(member.team, team)
+ *         .where(usernameEq(...), teamNameEq(...))
+ *         .fetch();
+ * </pre>
+ */
+public class CountQueryBuilder {
+
+    private final JPAQueryFactory queryFactory;
+    private final EntityPath<?> from;
+    private final SimpleExpression<?> key;
+    private final List<Join> joins = new ArrayList<>();
+    private final List<Predicate> where = new ArrayList<>();
+
+    private CountQueryBuilder(JPAQueryFactory queryFactory, EntityPath<?> from, SimpleExpression<?> key) {
+        this.queryFactory = queryFactory;
+        this.from = from;
+        this.key = key;
+    }
+
+    public static CountQueryBuilder count(JPAQueryFactory queryFactory, EntityPath<?> from, SimpleExpression<?> key) {
+        return new CountQueryBuilder(queryFactory, from, key);
+    }
+
+    public <P> CountQueryBuilder leftJoin(EntityPath<P> target, Path<P> alias) {
+        joins.add(new Join(target, alias, query -> query.leftJoin(target, alias)));
+        return this;
+    }
+
+    /**
+     * 컬렉션 left join. 행 수를 늘리므로 where 조건이 대상마다 한 건 이하로 좁힐 때만 쓴다.
+     */
+    public <P> CountQueryBuilder leftJoin(CollectionPathBase<?, P, ?> target, Path<P> alias) {
+        joins.add(new Join(target, alias, query -> query.leftJoin(target, alias)));
+        return this;
+    }
+
+    // Querydsl where() 와 같이 null 조건은 무시한다.
+    public CountQueryBuilder where(Predicate... predicates) {
+        for (Predicate predicate : predicates) {
+            if (predicate != null) {
+                where.add(predicate);
+            }
+        }
+        return this;
+    }
+
+    public JPAQuery<Long> build() {
+        Set<Path<?>> usedRoots = new HashSet<>();
+        for (Predicate predicate : where) {
+            predicate.accept(RootCollector.INSTANCE, usedRoots);
+        }
+
+        // 남기는 join 이 다른 join 의 별칭에서 출발하면(member.team -> team.x) 그 join 도 남긴다.
+        // join 은 앞에서 선언한 별칭만 참조할 수 있으므로 뒤에서부터 한 번 훑으면 된다.
+        boolean[] needed = new boolean[joins.size()];
+        for (int i = joins.size() - 1; i >= 0; i--) {
+            Join join = joins.get(i);
+            if (usedRoots.contains(join.alias().getRoot())) {
+                needed[i] = true;
+                usedRoots.add(join.target().getRoot());
+            }
+        }
+
+        JPAQuery<Long> query = queryFactory
+                .select(key.count())
+                .from(from);
+        for (int i = 0; i < joins.size(); i++) {
+            if (needed[i]) {
+                joins.get(i).apply().accept(query);
+            }
+        }
+        return query.where(where.toArray(new Predicate[0]));
+    }
+
+    public long fetch() {
+        Long total = build().fetchOne();
+        return total == null ? 0 : total;
+    }
+
+    private record Join(Path<?> target, Path<?> alias, Consumer<JPAQuery<?>> apply) {
+    }
+
+    /**
+     * 표현식이 참조하는 경로들의 루트(별칭)를 모은다.
+     */
+    private static final class RootCollector implements Visitor<Void, Set<Path<?>>> {
+
+        static final RootCollector INSTANCE = new RootCollector();
+
+        @Override
+        public Void visit(Constant<?> expr, Set<Path<?>> roots) {
+            return null;
+        }
+
+        @Override
+        public Void visit(FactoryExpression<?> expr, Set<Path<?>> roots) {
+            for (Expression<?> arg : expr.getArgs()) {
+                arg.accept(this, roots);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(Operation<?> expr, Set<Path<?>> roots) {
+            for (Expression<?> arg : expr.getArgs()) {
+                arg.accept(this, roots);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(ParamExpression<?> expr, Set<Path<?>> roots) {
+            return null;
+        }
+
+        @Override
+        public Void visit(Path<?> expr, Set<Path<?>> roots) {
+            roots.add(expr.getRoot());
+            return null;
+        }
+
+        // 서브쿼리가 바깥 별칭을 참조할 수 있으므로 서브쿼리의 조건과 프로젝션도 본다.
+        @Override
+        public Void visit(SubQueryExpression<?> expr, Set<Path<?>> roots) {
+            QueryMetadata metadata = expr.getMetadata();
+            if (metadata.getWhere() != null) {
+                metadata.getWhere().accept(this, roots);
+            }
+            if (metadata.getProjection() != null) {
+                metadata.getProjection().accept(this, roots);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(TemplateExpression<?> expr, Set<Path<?>> roots) {
+            for (Object arg : expr.getArgs()) {
+                if (arg instanceof Expression<?> expression) {
+                    expression.accept(this, roots);
+                }
+            }
+            return null;
+        }
+    }
+}
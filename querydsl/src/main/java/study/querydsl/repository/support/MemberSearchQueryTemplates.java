@@ -0,0 +1,227 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.QTeam;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * MemberSearchCondition 의 "모양"별 JPQL 캐시
+ * 조건 4개(회원명, 팀명, ageGoe, ageLoe)의 유무 조합은 16가지뿐이다.
+ * 모양별로 JPQL 문자열을 한 번만 만들어 두고, 호출마다 파라미터 값만 바인딩한다.
+ * 같은 문자열을 재사용하므로 Hibernate 쿼리 플랜 캐시도 항상 적중한다.
+ * 정렬이 있으면 모양별 본문 뒤에 화이트리스트로 만든 order by 만 붙인다. (MemberRepositoryImpl 의 MEMBER_SORT 와 같은 필드, member.id tiebreaker)
+ */
+@Component
+public class MemberSearchQueryTemplates {
+
+    private static final int USERNAME = 1;
+    private static final int TEAM_NAME = 1 << 1;
+    private static final int AGE_GOE = 1 << 2;
+    private static final int AGE_LOE = 1 << 3;
+    private static final int SHAPES = 1 << 4;
+
+    private static final QTeam teamSub = new QTeam("teamSub");
+
+    // 정렬 가능한 필드: 요청 파라미터 이름 -> {JPQL 경로, SQL 컬럼}
+    private static final Map<String, String[]> SORTABLE = Map.of(
+            "memberId", new String[]{"m.id", "m.member_id"},
+            "username", new String[]{"m.username", "m.username"},
+            "age", new String[]{"m.age", "m.age"},
+            "teamName", new String[]{"m.teamName", "m.team_name"});
+    private static final int JPQL = 0;
+    private static final int SQL = 1;
+    private static final int MAX_SORT_KEYS = 2;
+
+    private final AtomicReferenceArray<Template> templates = new AtomicReferenceArray<>(SHAPES);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder savedNanos = new LongAdder();
+
+    public TypedQuery<MemberTeamDto> contentQuery(EntityManager em, MemberSearchCondition condition) {
+        return contentQuery(em, condition, Sort.unsorted());
+    }
+
+    public TypedQuery<MemberTeamDto> contentQuery(EntityManager em, MemberSearchCondition condition, Sort sort) {
+        Template template = template(condition);
+        return bind(em.createQuery(template.contentJpql + orderBy(sort, JPQL), MemberTeamDto.class), template.shape, condition);
+    }
+
+    public TypedQuery<Long> countQuery(EntityManager em, MemberSearchCondition condition) {
+        Template template = template(condition);
+        return bind(em.createQuery(template.countJpql, Long.class), template.shape, condition);
+    }
+
+    /**
+     * 컨텐츠와 전체 개수를 한 번에 가져오는 네이티브 쿼리 (JPQL 에는 윈도우 함수가 없다)
+     * 각 행은 member_id, username, age, team_id, team_name, total_count 순서의 Object[] 이다.
+     * count(*) over () 는 limit/offset 적용 전의 전체 결과에 대해 계산된다.
+     */
+    public Query windowPageQuery(EntityManager em, MemberSearchCondition condition, Sort sort) {
+        Template template = template(condition);
+        return bind(em.createNativeQuery(template.windowSql + orderBy(sort, SQL)), template.shape, condition);
+    }
+
+    // 정렬이 없으면 member.id 순서. 허용되지 않은 필드나 키가 너무 많으면 UnsupportedSortException (QuerydslSortTranslator 와 같은 규칙)
+    private static String orderBy(Sort sort, int dialect) {
+        if (sort.isUnsorted()) {
+            return dialect == JPQL ? " order by m.id" : " order by m.member_id";
+        }
+        StringBuilder orderBy = new StringBuilder(" order by ");
+        int keys = 0;
+        boolean tiebroken = false;
+        for (Sort.Order order : sort) {
+            String[] paths = SORTABLE.get(order.getProperty());
+            if (paths == null) {
+                throw new UnsupportedSortException("정렬할 수 없는 필드입니다: " + order.getProperty()
+                        + " (가능한 필드: " + SORTABLE.keySet() + ")");
+            }
+            if (keys == MAX_SORT_KEYS) {
+                throw new UnsupportedSortException("정렬 조건은 " + MAX_SORT_KEYS + "개까지 가능합니다.");
+            }
+            if (keys++ > 0) {
+                orderBy.append(", ");
+            }
+            orderBy.append(paths[dialect]).append(order.isAscending() ? " asc" : " desc");
+            switch (order.getNullHandling()) {
+                case NULLS_FIRST -> orderBy.append(" nulls first");
+                case NULLS_LAST -> orderBy.append(" nulls last");
+                default -> {
+                }
+            }
+            // 유일 키 뒤의 정렬 조건은 의미가 없다.
+            if (order.getProperty().equals("memberId")) {
+                tiebroken = true;
+                break;
+            }
+        }
+        if (!tiebroken) {
+            orderBy.append(", ").append(SORTABLE.get("memberId")[dialect]).append(" asc");
+        }
+        return orderBy.toString();
+    }
+
+    private Template template(MemberSearchCondition condition) {
+        int shape = shapeOf(condition);
+        Template template = templates.get(shape);
+        if (template != null) {
+            hits.increment();
+            savedNanos.add(template.serializationNanos);
+            return template;
+        }
+        misses.increment();
+        // 동시에 처음 들어온 요청끼리는 같은 문자열을 중복으로 만들 수 있지만, 결과가 같으므로 먼저 들어간 것을 쓴다.
+        templates.compareAndSet(shape, null, build(shape));
+        return templates.get(shape);
+    }
+
+    private static int shapeOf(MemberSearchCondition condition) {
+        int shape = 0;
+        if (hasText(condition.getUsername())) shape |= USERNAME;
+        if (hasText(condition.getTeamName())) shape |= TEAM_NAME;
+        if (condition.getAgeGoe() != null) shape |= AGE_GOE;
+        if (condition.getAgeLoe() != null) shape |= AGE_LOE;
+        return shape;
+    }
+
+    private static Template build(int shape) {
+        StringBuilder where = new StringBuilder();
+        appendPredicate(where, shape, USERNAME, "m.username = :username");
+        appendPredicate(where, shape, TEAM_NAME, "m.team.id in (select ts.id from Team ts where ts.name = :teamName)");
+        appendPredicate(where, shape, AGE_GOE, "m.age >= :ageGoe");
+        appendPredicate(where, shape, AGE_LOE, "m.age <= :ageLoe");
+
+        StringBuilder sqlWhere = new StringBuilder();
+        appendPredicate(sqlWhere, shape, USERNAME, "m.username = :username");
+        appendPredicate(sqlWhere, shape, TEAM_NAME, "m.team_id in (select ts.id from team ts where ts.name = :teamName)");
+        appendPredicate(sqlWhere, shape, AGE_GOE, "m.age >= :ageGoe");
+        appendPredicate(sqlWhere, shape, AGE_LOE, "m.age <= :ageLoe");
+
+        String contentJpql = "select new " + MemberTeamDto.class.getName()
+                + "(m.id, m.username, m.age, t.id, t.name)"
+                + " from Member m left join m.team t" + where;
+        // 팀명 조건도 서브쿼리이므로 count 는 member 테이블만 센다.
+        String countJpql = "select count(m.id) from Member m" + where;
+
+        String windowSql = "select m.member_id, m.username, m.age, t.id as team_id, t.name as team_name,"
+                + " count(*) over () as total_count"
+                + " from member m left join team t on t.id = m.team_id" + sqlWhere;
+
+        return new Template(shape, contentJpql, countJpql, windowSql, serializationNanos(shape));
+    }
+
+    // 템플릿이 없었다면 호출마다 했을 일: 같은 모양의 Querydsl 쿼리를 만들어 컨텐츠/카운트 JPQL 로 직렬화하는 시간
+    // 모양마다 처음 한 번만 재므로 적중할 때 더하는 값은 이 측정치의 추정이다.
+    private static long serializationNanos(int shape) {
+        long start = System.nanoTime();
+        JPAQuery<MemberTeamDto> query = new JPAQuery<Void>()
+                .select(Projections.constructor(MemberTeamDto.class,
+                        member.id, member.username, member.age, team.id, team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .orderBy(member.id.asc());
+        // 값은 직렬화 결과에 영향이 없고 파라미터로만 들어간다.
+        if ((shape & USERNAME) != 0) query.where(member.username.eq(""));
+        if ((shape & TEAM_NAME) != 0) query.where(member.team.id.in(
+                JPAExpressions.select(teamSub.id).from(teamSub).where(teamSub.name.eq(""))));
+        if ((shape & AGE_GOE) != 0) query.where(member.age.goe(0));
+        if ((shape & AGE_LOE) != 0) query.where(member.age.loe(0));
+
+        JPQLSerializer content = new JPQLSerializer(JPQLTemplates.DEFAULT);
+        content.serialize(query.getMetadata(), false, null);
+        JPQLSerializer count = new JPQLSerializer(JPQLTemplates.DEFAULT);
+        count.serialize(query.getMetadata(), true, null);
+        content.toString();
+        count.toString();
+        return System.nanoTime() - start;
+    }
+
+    private static void appendPredicate(StringBuilder where, int shape, int flag, String predicate) {
+        if ((shape & flag) == 0) {
+            return;
+        }
+        where.append(where.length() == 0 ? " where " : " and ").append(predicate);
+    }
+
+    private static <Q extends Query> Q bind(Q query, int shape, MemberSearchCondition condition) {
+        if ((shape & USERNAME) != 0) query.setParameter("username", condition.getUsername());
+        if ((shape & TEAM_NAME) != 0) query.setParameter("teamName", condition.getTeamName());
+        if ((shape & AGE_GOE) != 0) query.setParameter("ageGoe", condition.getAgeGoe());
+        if ((shape & AGE_LOE) != 0) query.setParameter("ageLoe", condition.getAgeLoe());
+        return query;
+    }
+
+    public Map<String, Long> stats() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hitCount);
+        stats.put("misses", misses.sum());
+        stats.put("hitRatePercent", total == 0 ? 0 : hitCount * 100 / total);
+        // 적중 시 하지 않아도 된 Querydsl 직렬화 시간의 합 (모양별로 한 번 잰 값을 적중 횟수만큼 더한 추정치)
+        stats.put("savedSerializationMicros", savedNanos.sum() / 1_000);
+        return stats;
+    }
+
+    private record Template(int shape, String contentJpql, String countJpql, String windowSql, long serializationNanos) {
+    }
+}
@@ -0,0 +1,144 @@
+package study.querydsl.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 페이징의 컨텐츠 쿼리와 count 쿼리를 동시에 실행한다.
+ * 각 쿼리는 풀 스레드에서 자신만의 트랜잭션(= 자신만의 EntityManager)으로 실행되므로, 응답 시간이 두 쿼리의 합이 아니라 둘 중 느린 쪽이 된다.
+ * 풀과 큐는 크기가 제한되어 있고, 가득 차면 요청 스레드가 직접 실행한다. (순차 실행으로 자연스럽게 후퇴)
+ */
+@Slf4j
+@Component
+public class ParallelPageQueryExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+    private final TransactionTemplate transactionTemplate;
+    private final long timeoutMillis;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder savedNanos = new LongAdder();
+    private final AtomicLong lastSavedNanos = new AtomicLong();
+
+    public ParallelPageQueryExecutor(PlatformTransactionManager transactionManager,
+                                     @Value("${member.search.parallel.pool-size:8}") int poolSize,
+                                     @Value("${member.search.parallel.queue-capacity:64}") int queueCapacity,
+                                     @Value("${member.search.parallel.timeout-ms:3000}") long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "page-query-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+
+        // 요청 스레드에 트랜잭션이 있더라도 합류하지 않고, 쿼리마다 별도의 읽기 전용 트랜잭션을 연다.
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        // 트랜잭션 타임아웃은 JPA 쿼리 타임아웃으로 전파되어, 타임아웃이 나면 DB 쪽 작업도 중단된다.
+        this.transactionTemplate.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis + 999)));
+    }
+
+    public <T> Page<T> execute(Pageable pageable, Supplier<List<T>> contentQuery, LongSupplier countQuery) {
+        long start = System.nanoTime();
+        long[] contentNanos = new long[1];
+        long[] countNanos = new long[1];
+
+        Future<List<T>> contentFuture = executor.submit(() -> {
+            long queryStart = System.nanoTime();
+            List<T> content = transactionTemplate.execute(status -> contentQuery.get());
+            contentNanos[0] = System.nanoTime() - queryStart;
+            return content;
+        });
+        Future<Long> countFuture = executor.submit(() -> {
+            long queryStart = System.nanoTime();
+            Long total = transactionTemplate.execute(status -> countQuery.getAsLong());
+            countNanos[0] = System.nanoTime() - queryStart;
+            return total;
+        });
+
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        List<T> content = await(contentFuture, deadline, countFuture);
+        Long total = await(countFuture, deadline, contentFuture);
+
+        // Future.get() 이 happens-before 를 보장하므로 두 작업이 기록한 시간을 안전하게 읽을 수 있다.
+        long elapsed = System.nanoTime() - start;
+        long saved = Math.max(0, contentNanos[0] + countNanos[0] - elapsed);
+        requests.increment();
+        savedNanos.add(saved);
+        lastSavedNanos.set(saved);
+        log.debug("parallel page query: content={}ms, count={}ms, elapsed={}ms, saved={}ms",
+                TimeUnit.NANOSECONDS.toMillis(contentNanos[0]), TimeUnit.NANOSECONDS.toMillis(countNanos[0]),
+                TimeUnit.NANOSECONDS.toMillis(elapsed), TimeUnit.NANOSECONDS.toMillis(saved));
+
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private <R> R await(Future<R> future, long deadline, Future<?> other) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            future.cancel(true);
+            other.cancel(true);
+            throw new QueryTimeoutException("페이징 쿼리가 " + timeoutMillis + "ms 안에 끝나지 않았습니다.", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            other.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("페이징 쿼리 대기 중 인터럽트되었습니다.", e);
+        } catch (ExecutionException e) {
+            other.cancel(true);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    public Map<String, Long> stats() {
+        long count = requests.sum();
+        long saved = savedNanos.sum();
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("requests", count);
+        stats.put("timeouts", timeouts.sum());
+        stats.put("savedMillisTotal", TimeUnit.NANOSECONDS.toMillis(saved));
+        stats.put("savedMicrosPerRequest", count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(saved / count));
+        stats.put("savedMicrosLast", TimeUnit.NANOSECONDS.toMicros(lastSavedNanos.get()));
+        stats.put("activeThreads", (long) executor.getActiveCount());
+        stats.put("queued", (long) executor.getQueue().size());
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
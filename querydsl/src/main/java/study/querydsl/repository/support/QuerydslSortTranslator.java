@@ -0,0 +1,74 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spring Data Sort -> Querydsl OrderSpecifier 변환기
+ * - 화이트리스트에 있는 프로퍼티만 정렬할 수 있다. 화이트리스트에는 인덱스가 있는 컬럼만 올린다.
+ *   (인덱스 없는 컬럼으로 정렬하면 조건에 맞는 행을 전부 읽고 정렬(filesort)해야 한다)
+ * - 정렬 키 개수도 제한한다. 키가 많을수록 그 순서를 그대로 가진 인덱스가 없어 정렬 비용이 커진다.
+ * - 마지막에 항상 유일 키(tiebreaker)를 붙인다. 같은 값끼리의 순서가 고정되어야 페이지 경계에서 누락/중복이 없다.
+ */
+public class QuerydslSortTranslator {
+
+    private final Map<String, ComparableExpressionBase<?>> sortable;
+    private final ComparableExpressionBase<?> tiebreaker;
+    private final int maxSortKeys;
+
+    public QuerydslSortTranslator(Map<String, ComparableExpressionBase<?>> sortable,
+                                  ComparableExpressionBase<?> tiebreaker,
+                                  int maxSortKeys) {
+        this.sortable = sortable;
+        this.tiebreaker = tiebreaker;
+        this.maxSortKeys = maxSortKeys;
+    }
+
+    public OrderSpecifier<?>[] translate(Sort sort) {
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+        boolean tiebroken = false;
+        for (Sort.Order order : sort) {
+            ComparableExpressionBase<?> expression = sortable.get(order.getProperty());
+            if (expression == null) {
+                throw new UnsupportedSortException("정렬할 수 없는 필드입니다: " + order.getProperty()
+                        + " (가능한 필드: " + sortable.keySet() + ")");
+            }
+            if (orders.size() == maxSortKeys) {
+                throw new UnsupportedSortException("정렬 조건은 " + maxSortKeys + "개까지 가능합니다.");
+            }
+            orders.add(toOrderSpecifier(order, expression));
+            // 유일 키 뒤의 정렬 조건은 의미가 없다.
+            if (expression.equals(tiebreaker)) {
+                tiebroken = true;
+                break;
+            }
+        }
+        if (!tiebroken) {
+            orders.add(tiebreaker.asc());
+        }
+        return orders.toArray(new OrderSpecifier<?>[0]);
+    }
+
+    /**
+     * 정해진 순서로만 조회하는 목록에 정렬 조건이 오면 무시하지 않고 거절한다.
+     */
+    public static void requireUnsorted(Sort sort) {
+        if (sort.isSorted()) {
+            throw new UnsupportedSortException("정렬 조건을 지정할 수 없는 목록입니다: " + sort);
+        }
+    }
+
+    private static OrderSpecifier<?> toOrderSpecifier(Sort.Order order, ComparableExpressionBase<?> expression) {
+        OrderSpecifier<?> orderSpecifier = order.isAscending() ? expression.asc() : expression.desc();
+        return switch (order.getNullHandling()) {
+            case NULLS_FIRST -> orderSpecifier.nullsFirst();
+            case NULLS_LAST -> orderSpecifier.nullsLast();
+            default -> orderSpecifier;
+        };
+    }
+}
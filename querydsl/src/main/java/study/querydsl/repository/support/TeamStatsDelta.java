@@ -0,0 +1,50 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+
+/**
+ * 한 트랜잭션(또는 벌크 청크)에서 팀 하나의 회원 집계가 바뀐 양
+ * 들어온 회원의 최솟값/최댓값은 합칠 수 있지만, 빠진 회원은 합칠 수 없으므로 minMaxStale 로 표시해 두고 다시 구한다.
+ */
+@Getter
+public class TeamStatsDelta {
+
+    private long memberCount;
+    private long ageSum;
+    private Integer addedMinAge;
+    private Integer addedMaxAge;
+    private boolean minMaxStale;
+    // 이전 상태를 몰라서 증감할 수 없으면 팀 전체를 다시 집계한다.
+    private boolean recompute;
+
+    public void add(int age) {
+        memberCount++;
+        ageSum += age;
+        addedMinAge = addedMinAge == null ? age : Math.min(addedMinAge, age);
+        addedMaxAge = addedMaxAge == null ? age : Math.max(addedMaxAge, age);
+    }
+
+    public void remove(int age) {
+        removeAll(1, age);
+    }
+
+    public void removeAll(long count, long ageSum) {
+        this.memberCount -= count;
+        this.ageSum -= ageSum;
+        this.minMaxStale = true;
+    }
+
+    // 회원은 그대로이고 나이만 바뀐 경우 (벌크 나이 변경)
+    public void shiftAges(long ageSum) {
+        this.ageSum += ageSum;
+        this.minMaxStale = true;
+    }
+
+    public void markRecompute() {
+        this.recompute = true;
+    }
+
+    public boolean isEmpty() {
+        return !recompute && !minMaxStale && memberCount == 0 && ageSum == 0 && addedMinAge == null;
+    }
+}
@@ -0,0 +1,102 @@
+package study.querydsl.repository.support;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * team 의 회원 집계 컬럼(member_count, age_sum, min_age, max_age)을 고치는 SQL
+ * 엔티티를 읽어서 더하면 동시에 커밋하는 트랜잭션끼리 값을 덮어쓰므로, 항상 컬럼 기준으로 증감한다.
+ * 잠금 순서를 맞추기 위해 팀 id 순으로 실행한다.
+ */
+public final class TeamStatsSql {
+
+    // 들어오기만 했으면 최솟값/최댓값도 증감으로 맞출 수 있다.
+    private static final String ADD_SQL = "update team set"
+            + " member_count = member_count + ?, age_sum = age_sum + ?,"
+            + " min_age = least(coalesce(min_age, ?), ?), max_age = greatest(coalesce(max_age, ?), ?)"
+            + " where id = ?";
+
+    // 빠진 회원이 있으면 최솟값/최댓값은 idx_member_team_age 로 다시 구한다. (팀 회원 수와 상관없이 인덱스 양 끝만 읽는다)
+    private static final String ADD_AND_REFRESH_MIN_MAX_SQL = "update team set"
+            + " member_count = member_count + ?, age_sum = age_sum + ?,"
+            + " min_age = (select min(m.age) from member m where m.team_id = ?),"
+            + " max_age = (select max(m.age) from member m where m.team_id = ?)"
+            + " where id = ?";
+
+    private static final String RECOMPUTE_SQL = "update team set"
+            + " member_count = (select count(*) from member m where m.team_id = ?),"
+            + " age_sum = (select coalesce(sum(m.age), 0) from member m where m.team_id = ?),"
+            + " min_age = (select min(m.age) from member m where m.team_id = ?),"
+            + " max_age = (select max(m.age) from member m where m.team_id = ?)"
+            + " where id = ?";
+
+    private TeamStatsSql() {
+    }
+
+    public static void apply(Connection connection, Map<Long, TeamStatsDelta> deltas) throws SQLException {
+        Map<Long, TeamStatsDelta> ordered = new TreeMap<>(deltas);
+        try (PreparedStatement add = connection.prepareStatement(ADD_SQL);
+             PreparedStatement refresh = connection.prepareStatement(ADD_AND_REFRESH_MIN_MAX_SQL)) {
+            boolean hasAdd = false;
+            boolean hasRefresh = false;
+            for (Map.Entry<Long, TeamStatsDelta> entry : ordered.entrySet()) {
+                long teamId = entry.getKey();
+                TeamStatsDelta delta = entry.getValue();
+                if (delta.isRecompute() || delta.isEmpty()) {
+                    continue;
+                }
+                if (delta.isMinMaxStale() || delta.getAddedMinAge() == null) {
+                    refresh.setLong(1, delta.getMemberCount());
+                    refresh.setLong(2, delta.getAgeSum());
+                    refresh.setLong(3, teamId);
+                    refresh.setLong(4, teamId);
+                    refresh.setLong(5, teamId);
+                    refresh.addBatch();
+                    hasRefresh = true;
+                } else {
+                    add.setLong(1, delta.getMemberCount());
+                    add.setLong(2, delta.getAgeSum());
+                    add.setInt(3, delta.getAddedMinAge());
+                    add.setInt(4, delta.getAddedMinAge());
+                    add.setInt(5, delta.getAddedMaxAge());
+                    add.setInt(6, delta.getAddedMaxAge());
+                    add.setLong(7, teamId);
+                    add.addBatch();
+                    hasAdd = true;
+                }
+            }
+            if (hasAdd) {
+                add.executeBatch();
+            }
+            if (hasRefresh) {
+                refresh.executeBatch();
+            }
+        }
+        recompute(connection, ordered.entrySet().stream()
+                .filter(entry -> entry.getValue().isRecompute())
+                .map(Map.Entry::getKey)
+                .toList());
+    }
+
+    /**
+     * 팀의 집계를 member 테이블에서 다시 구한다. (팀 회원 수만큼 읽는다)
+     */
+    public static void recompute(Connection connection, Collection<Long> teamIds) throws SQLException {
+        if (teamIds.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement recompute = connection.prepareStatement(RECOMPUTE_SQL)) {
+            for (Long teamId : teamIds.stream().sorted().toList()) {
+                for (int i = 1; i <= 5; i++) {
+                    recompute.setLong(i, teamId);
+                }
+                recompute.addBatch();
+            }
+            recompute.executeBatch();
+        }
+    }
+}
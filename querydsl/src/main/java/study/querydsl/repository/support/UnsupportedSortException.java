@@ -0,0 +1,16 @@
+package study.querydsl.repository.support;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 허용되지 않은 정렬 요청. 컨트롤러까지 올라가면 400 으로 응답한다.
+ * 리포지토리 예외 변환에 감싸지지 않도록 RuntimeException 을 상속한다. (InvalidCursorException 참고)
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnsupportedSortException extends RuntimeException {
+
+    public UnsupportedSortException(String message) {
+        super(message);
+    }
+}
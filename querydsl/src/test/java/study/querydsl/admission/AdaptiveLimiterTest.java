@@ -0,0 +1,75 @@
+package study.querydsl.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveLimiterTest {
+
+    @Test
+    public void rejectWhenQueueIsFull() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 1, 1, 0);
+        assertThat(limiter.acquire(0)).isNull();
+        assertThat(limiter.acquire(0)).isEqualTo(AdaptiveLimiter.Rejection.QUEUE_FULL);
+
+        limiter.release(0);
+        assertThat(limiter.acquire(0)).isNull();
+    }
+
+    @Test
+    public void timeoutInQueue() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 1, 1, 1);
+        assertThat(limiter.acquire(0)).isNull();
+        assertThat(limiter.acquire(10)).isEqualTo(AdaptiveLimiter.Rejection.TIMEOUT);
+        assertThat(limiter.stats().get("waiting")).isEqualTo(0L);
+    }
+
+    @Test
+    public void waiterIsAdmittedOnRelease() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 1, 1, 1);
+        assertThat(limiter.acquire(0)).isNull();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<AdaptiveLimiter.Rejection> waiter = executor.submit(() -> limiter.acquire(1000));
+            while (limiter.stats().get("waiting") == 0) {
+                Thread.sleep(5);
+            }
+            limiter.release(0);
+            assertThat(waiter.get(1, TimeUnit.SECONDS)).isNull();
+            assertThat(limiter.stats().get("inFlight")).isEqualTo(1L);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void limitShrinksWhenLatencyRisesAndRecovers() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(16, 2, 32, 0);
+        for (int i = 0; i < 50; i++) {
+            run(limiter, 1_000_000);
+        }
+        long steady = limiter.stats().get("limit");
+        assertThat(steady).isEqualTo(32L);
+
+        // DB 가 10배 느려지면 제한값이 줄어든다.
+        for (int i = 0; i < 50; i++) {
+            run(limiter, 10_000_000);
+        }
+        long degraded = limiter.stats().get("limit");
+        assertThat(degraded).isLessThan(steady);
+
+        // 다시 빨라지면 회복한다.
+        for (int i = 0; i < 200; i++) {
+            run(limiter, 1_000_000);
+        }
+        assertThat(limiter.stats().get("limit")).isGreaterThan(degraded);
+    }
+
+    private static void run(AdaptiveLimiter limiter, long dbNanos) throws InterruptedException {
+        assertThat(limiter.acquire(0)).isNull();
+        limiter.release(dbNanos);
+    }
+}
@@ -0,0 +1,64 @@
+package study.querydsl.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// 오래 걸리는 작업 묶음(LONG_RUNNING)의 자리를 1 개로 줄여서, 스트리밍이 끝날 때까지 자리를 잡고 있는지 본다.
+@SpringBootTest(properties = "admission.long-running.limit=1")
+@AutoConfigureMockMvc
+class AdmissionInterceptorTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    AdmissionControl admissionControl;
+
+    @Test
+    public void streamHoldsLongRunningSlotUntilAsyncDispatchCompletes() throws Exception {
+        MvcResult stream = mockMvc.perform(get("/v1/members/stream").param("username", "nobody"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // 요청 스레드는 떠났지만 응답을 다 쓰기 전이므로 자리는 그대로다.
+        assertThat(longRunning().get("inFlight")).isEqualTo(1L);
+
+        // 같은 묶음의 스트리밍/대량 적재는 기다리지 않고 바로 거절된다.
+        mockMvc.perform(get("/v1/members/stream"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        mockMvc.perform(post("/members/bulk").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isTooManyRequests());
+        // 다른 묶음은 영향받지 않는다.
+        mockMvc.perform(get("/v5/members"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(asyncDispatch(stream))
+                .andExpect(status().isOk());
+        assertThat(longRunning().get("inFlight")).isEqualTo(0L);
+
+        mockMvc.perform(post("/members/bulk").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isOk());
+        assertThat(longRunning().get("inFlight")).isEqualTo(0L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Long> longRunning() {
+        return (Map<String, Long>) admissionControl.stats().get(AdmissionGroup.LONG_RUNNING.name());
+    }
+}
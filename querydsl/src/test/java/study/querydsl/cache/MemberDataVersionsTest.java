@@ -0,0 +1,72 @@
+package study.querydsl.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.event.BulkChangedEvent;
+import study.querydsl.event.ChangeType;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.event.MemberState;
+import study.querydsl.event.TeamChangedEvent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberDataVersionsTest {
+
+    MemberDataVersions versions = new MemberDataVersions();
+    PageRequest page = PageRequest.of(0, 10);
+
+    @Test
+    public void sameConditionSameEtag() {
+        assertThat(etag("teamA")).isEqualTo(etag("teamA"));
+        assertThat(etag("teamA")).isNotEqualTo(etag("teamB"));
+        assertThat(versions.etag("v2", condition("teamA"), page))
+                .isNotEqualTo(versions.etag("v2", condition("teamA"), PageRequest.of(1, 10)));
+    }
+
+    @Test
+    public void memberChangeBumpsOnlyItsTeam() {
+        String teamA = etag("teamA");
+        String teamB = etag("teamB");
+        String all = etag(null);
+
+        versions.onMemberChanged(new MemberChangedEvent(ChangeType.INSERT, 1L, null,
+                new MemberState("member1", 10, 1L, "teamA")));
+
+        assertThat(etag("teamA")).isNotEqualTo(teamA);
+        assertThat(etag("teamB")).isEqualTo(teamB);
+        assertThat(etag(null)).isNotEqualTo(all);
+    }
+
+    @Test
+    public void unknownTeamOrBulkBumpsEveryTeam() {
+        String teamB = etag("teamB");
+        versions.onMemberChanged(new MemberChangedEvent(ChangeType.UPDATE, 1L,
+                new MemberState("member1", 10, 1L, null), new MemberState("member1", 11, 1L, null)));
+        assertThat(etag("teamB")).isNotEqualTo(teamB);
+
+        teamB = etag("teamB");
+        versions.onBulkChanged(new BulkChangedEvent(Member.class));
+        assertThat(etag("teamB")).isNotEqualTo(teamB);
+    }
+
+    @Test
+    public void teamRenameBumpsOldAndNewName() {
+        String teamA = etag("teamA");
+        String teamC = etag("teamC");
+        versions.onTeamChanged(new TeamChangedEvent(ChangeType.UPDATE, 1L, "teamA", "teamC"));
+        assertThat(etag("teamA")).isNotEqualTo(teamA);
+        assertThat(etag("teamC")).isNotEqualTo(teamC);
+    }
+
+    private String etag(String teamName) {
+        return versions.etag("v2", condition(teamName), page);
+    }
+
+    private static MemberSearchCondition condition(String teamName) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName(teamName);
+        return condition;
+    }
+}
@@ -0,0 +1,66 @@
+package study.querydsl.cache;
+
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.event.ChangeType;
+import study.querydsl.event.MemberChangedEvent;
+import study.querydsl.event.MemberState;
+import study.querydsl.event.TeamChangedEvent;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberSearchCacheTest {
+
+    MemberSearchCache cache = new MemberSearchCache(true, 1000, 60);
+    AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    public void invalidateOnlyAffectedEntries() {
+        MemberSearchCondition teamA = condition("teamA");
+        MemberSearchCondition teamB = condition("teamB");
+        search(teamA);
+        search(teamB);
+        assertThat(loads.get()).isEqualTo(2);
+
+        // teamA 에 회원이 추가되면 teamA 검색만 지워진다.
+        cache.onMemberChanged(new MemberChangedEvent(ChangeType.INSERT, 1L, null,
+                new MemberState("member1", 10, 1L, "teamA")));
+
+        search(teamA);
+        search(teamB);
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void teamRenameInvalidatesOldAndNewName() {
+        MemberSearchCondition teamA = condition("teamA");
+        MemberSearchCondition teamB = condition("teamB");
+        MemberSearchCondition teamC = condition("teamC");
+        search(teamA);
+        search(teamB);
+        search(teamC);
+
+        cache.onTeamChanged(new TeamChangedEvent(ChangeType.UPDATE, 1L, "teamA", "teamB"));
+
+        search(teamA);
+        search(teamB);
+        search(teamC);
+        assertThat(loads.get()).isEqualTo(5);
+    }
+
+    private List<String> search(MemberSearchCondition condition) {
+        return cache.get("test", condition, null, () -> {
+            loads.incrementAndGet();
+            return List.of(condition.getTeamName());
+        });
+    }
+
+    private MemberSearchCondition condition(String teamName) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName(teamName);
+        return condition;
+    }
+}
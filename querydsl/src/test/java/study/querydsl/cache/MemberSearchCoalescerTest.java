@@ -0,0 +1,150 @@
+package study.querydsl.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.event.ChangeType;
+import study.querydsl.event.TeamChangedEvent;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberSearchCoalescerTest {
+
+    MemberDataVersions versions = new MemberDataVersions();
+    MemberSearchCoalescer coalescer = new MemberSearchCoalescer(versions, true, 1000);
+
+    @Test
+    public void concurrentIdenticalCallsShareOneExecution() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Callable<List<String>> call = () -> coalescer.execute("v2", condition("teamA"), PageRequest.of(0, 10), () -> {
+                loads.incrementAndGet();
+                started.countDown();
+                await(release);
+                return List.of("member1");
+            });
+
+            Future<List<String>> leader = executor.submit(call);
+            started.await(1, TimeUnit.SECONDS);
+            Future<List<String>> follower1 = executor.submit(call);
+            Future<List<String>> follower2 = executor.submit(call);
+            // follower 들이 leader 의 실행에 합류할 때까지 기다린다.
+            while (coalescer.stats().get("coalesced") < 2) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            assertThat(leader.get(1, TimeUnit.SECONDS)).containsExactly("member1");
+            assertThat(follower1.get(1, TimeUnit.SECONDS)).isSameAs(leader.get());
+            assertThat(follower2.get(1, TimeUnit.SECONDS)).isSameAs(leader.get());
+            assertThat(loads.get()).isEqualTo(1);
+            assertThat(coalescer.stats().get("inFlight")).isEqualTo(0L);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void doesNotJoinLeaderStartedBeforeCommittedWrite() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> leader = executor.submit(() -> coalescer.execute("v2", condition("teamA"), null, () -> {
+                loads.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "before";
+            }));
+            started.await(1, TimeUnit.SECONDS);
+
+            // leader 가 시작한 뒤에 이 요청의 쓰기가 커밋되었다.
+            versions.onTeamChanged(new TeamChangedEvent(ChangeType.UPDATE, 1L, "teamA", "teamA"));
+            String mine = coalescer.execute("v2", condition("teamA"), null, () -> {
+                loads.incrementAndGet();
+                return "after";
+            });
+            release.countDown();
+
+            assertThat(mine).isEqualTo("after");
+            assertThat(leader.get(1, TimeUnit.SECONDS)).isEqualTo("before");
+            assertThat(loads.get()).isEqualTo(2);
+            assertThat(coalescer.stats().get("staleLeaders")).isEqualTo(1L);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void followerStopsWaitingForHungLeader() throws Exception {
+        MemberSearchCoalescer shortWait = new MemberSearchCoalescer(versions, true, 50);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> shortWait.execute("v2", condition("teamA"), null, () -> {
+                started.countDown();
+                await(release);
+                return "leader";
+            }));
+            started.await(1, TimeUnit.SECONDS);
+
+            // leader 가 끝나지 않아도 max-wait 가 지나면 직접 조회한다.
+            assertThat(shortWait.execute("v2", condition("teamA"), null, () -> "mine")).isEqualTo("mine");
+            assertThat(shortWait.stats().get("waitTimeouts")).isEqualTo(1L);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void disabledRunsEveryCall() {
+        MemberSearchCoalescer disabled = new MemberSearchCoalescer(versions, false, 1000);
+        AtomicInteger loads = new AtomicInteger();
+        disabled.execute("v2", condition("teamA"), null, loads::incrementAndGet);
+        disabled.execute("v2", condition("teamA"), null, loads::incrementAndGet);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void differentPageRunsSeparately() {
+        AtomicInteger loads = new AtomicInteger();
+        coalescer.execute("v2", condition("teamA"), PageRequest.of(0, 10), loads::incrementAndGet);
+        coalescer.execute("v2", condition("teamA"), PageRequest.of(1, 10), loads::incrementAndGet);
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(coalescer.stats().get("coalesced")).isEqualTo(0L);
+    }
+
+    @Test
+    public void failureIsNotRemembered() {
+        assertThatThrownBy(() -> coalescer.execute("v2", condition("teamA"), null, () -> {
+            throw new IllegalStateException("db down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(coalescer.execute("v2", condition("teamA"), null, () -> "ok")).isEqualTo("ok");
+    }
+
+    private static MemberSearchCondition condition(String teamName) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName(teamName);
+        return condition;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package study.querydsl.controller;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.BulkIngestException;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.BulkChangedEvent;
+import study.querydsl.event.MemberChangedEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+// 청크마다 커밋되는지 보려면 테스트 트랜잭션에 합류하면 안 되므로, 커밋하고 끝나면 지운다.
+// 청크가 여러 개로 나뉘도록 청크 크기를 2 로 줄인다.
+@SpringBootTest(properties = "bulk.chunk-size=2")
+class MemberBulkIngesterTest {
+
+    @TestConfiguration
+    static class EventRecorderConfig {
+        @Bean
+        EventRecorder eventRecorder() {
+            return new EventRecorder();
+        }
+    }
+
+    // 회원 엔티티 이벤트 수와, 커밋 이후에 전달된 벌크 이벤트 수
+    static class EventRecorder {
+        final AtomicInteger memberEvents = new AtomicInteger();
+        final AtomicInteger committedBulkEvents = new AtomicInteger();
+
+        @EventListener
+        public void onMemberChanged(MemberChangedEvent event) {
+            memberEvents.incrementAndGet();
+        }
+
+        @TransactionalEventListener
+        public void onBulkChanged(BulkChangedEvent event) {
+            if (event.entityType() == Member.class) {
+                committedBulkEvents.incrementAndGet();
+            }
+        }
+    }
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MemberBulkIngester memberBulkIngester;
+
+    @Autowired
+    EventRecorder eventRecorder;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> em.persist(new Team("bulkTeamA")));
+        eventRecorder.memberEvents.set(0);
+        eventRecorder.committedBulkEvents.set(0);
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'bulk%'").executeUpdate();
+            em.createQuery("delete from Team t where t.name like 'bulkTeam%'").executeUpdate();
+        });
+    }
+
+    @Test
+    public void ingestCommitsPerChunk() throws Exception {
+        MemberBulkIngester.IngestResult result = memberBulkIngester.ingest(json("""
+                [
+                  {"username": "bulk1", "age": 10, "teamName": "bulkTeamA"},
+                  {"username": "bulk2", "age": 20, "teamName": "bulkTeamB"},
+                  {"username": "bulk3", "age": 30, "teamName": "bulkTeamB"},
+                  {"username": "bulk4", "age": 40},
+                  {"username": "bulk5", "age": 50, "teamName": "bulkTeamA"}
+                ]
+                """));
+
+        assertThat(result.rows()).isEqualTo(5);
+        assertThat(result.chunks()).isEqualTo(3);
+        assertThat(result.teamsCreated()).isEqualTo(1); // bulkTeamB 만 새로 만든다.
+
+        List<Member> members = committedMembers();
+        assertThat(members).extracting("username").containsExactly("bulk1", "bulk2", "bulk3", "bulk4", "bulk5");
+        assertThat(members.get(0).getTeam().getName()).isEqualTo("bulkTeamA");
+        assertThat(members.get(1).getTeam()).isSameAs(members.get(2).getTeam());
+        assertThat(members.get(1).getTeamName()).isEqualTo("bulkTeamB");
+        assertThat(members.get(3).getTeam()).isNull();
+
+        // 행마다 엔티티 이벤트를 내지 않고(커밋 시점 포함), 청크마다 커밋 이후에 벌크 이벤트 하나씩
+        assertThat(eventRecorder.memberEvents.get()).isZero();
+        assertThat(eventRecorder.committedBulkEvents.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void earlierChunksStayCommittedAfterMalformedElement() {
+        assertThatThrownBy(() -> memberBulkIngester.ingest(json("""
+                [
+                  {"username": "bulk1", "age": 10, "teamName": "bulkTeamA"},
+                  {"username": "bulk2", "age": 20, "teamName": "bulkTeamA"},
+                  {"username": "bulk3", "age": 30, "teamName": "bulkTeamA"},
+                  {"username": "bulk4", "age": "x"}
+                ]
+                """)))
+                .isInstanceOfSatisfying(BulkIngestException.class,
+                        e -> assertThat(e.getCommittedRows()).isEqualTo(2));
+
+        // 첫 청크(2건)는 커밋되어 있고, 읽던 청크(bulk3)는 저장되지 않는다.
+        assertThat(committedMembers()).extracting("username").containsExactly("bulk1", "bulk2");
+        assertThat(eventRecorder.committedBulkEvents.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void rejectInvalidBody() {
+        assertThatThrownBy(() -> memberBulkIngester.ingest(json("{\"username\": \"bulk1\"}")))
+                .isInstanceOf(BulkIngestException.class);
+        assertThatThrownBy(() -> memberBulkIngester.ingest(json("[{\"age\": 10}]")))
+                .isInstanceOf(BulkIngestException.class)
+                .hasMessageContaining("username");
+        assertThat(committedMembers()).isEmpty();
+    }
+
+    private List<Member> committedMembers() {
+        return tx.execute(status -> new JPAQueryFactory(em)
+                .selectFrom(member)
+                .leftJoin(member.team, team).fetchJoin()
+                .where(member.username.startsWith("bulk"))
+                .orderBy(member.username.asc())
+                .fetch());
+    }
+
+    private static InputStream json(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
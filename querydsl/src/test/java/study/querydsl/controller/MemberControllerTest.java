@@ -0,0 +1,136 @@
+package study.querydsl.controller;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.InvalidCursorException;
+import study.querydsl.dto.MemberCursorPage;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    public void v5RejectsMalformedCursor() throws Exception {
+        mockMvc.perform(get("/v5/members").param("cursor", "not-a-cursor!"))
+                .andExpect(status().isBadRequest())
+                .andExpect(result -> assertThat(result.getResolvedException()).isInstanceOf(InvalidCursorException.class));
+        // base64 로는 맞지만 id 길이가 아닌 커서
+        mockMvc.perform(get("/v5/members").param("cursor", "AAAA"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void v5AcceptsIssuedCursor() throws Exception {
+        mockMvc.perform(get("/v5/members").param("cursor", MemberCursorPage.encodeCursor(1L)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void streamRejectsOutOfRangeFetchSize() throws Exception {
+        mockMvc.perform(get("/v1/members/stream").param("fetchSize", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v1/members/stream").param("fetchSize", "1000000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void conditionalGetReturnsNotModifiedForIssuedEtag() throws Exception {
+        Set<String> etags = new HashSet<>();
+        for (MockHttpServletRequestBuilder request : conditionalGets()) {
+            String etag = etag(request);
+            etags.add(etag);
+            mockMvc.perform(request.header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag));
+        }
+        // v2, v3, v3-capped, v4 는 ETag 키가 달라서 서로의 ETag 로 304 를 받지 않는다.
+        assertThat(etags).hasSize(4);
+    }
+
+    // 버전은 커밋 이후 이벤트로 올라가므로 테스트 트랜잭션 없이 직접 커밋하고, 끝나면 지운다.
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void committedWriteChangesEtag() throws Exception {
+        List<MockHttpServletRequestBuilder> requests = conditionalGets();
+        List<String> before = new ArrayList<>();
+        for (MockHttpServletRequestBuilder request : requests) {
+            before.add(etag(request));
+        }
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long[] teamId = new Long[1];
+        tx.executeWithoutResult(status -> {
+            Team team = new Team("etagTeam");
+            em.persist(team);
+            em.persist(new Member("etagMember", 10, team));
+            teamId[0] = team.getId();
+        });
+        try {
+            for (int i = 0; i < requests.size(); i++) {
+                String stale = before.get(i);
+                String fresh = mockMvc.perform(requests.get(i).header(HttpHeaders.IF_NONE_MATCH, stale))
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+                assertThat(fresh).isNotNull().isNotEqualTo(stale);
+            }
+        } finally {
+            tx.executeWithoutResult(status -> {
+                em.createQuery("delete from Member m where m.team.id = :teamId")
+                        .setParameter("teamId", teamId[0])
+                        .executeUpdate();
+                em.createQuery("delete from Team t where t.id = :teamId")
+                        .setParameter("teamId", teamId[0])
+                        .executeUpdate();
+            });
+        }
+    }
+
+    // 호출할 때마다 새 요청을 만든다. (If-None-Match 가 쌓이지 않도록)
+    private static List<MockHttpServletRequestBuilder> conditionalGets() {
+        return List.of(
+                get("/v2/members").param("size", "5"),
+                get("/v3/members").param("size", "5"),
+                get("/v3/members").param("size", "5").param("exactCount", "false"),
+                get("/v4/members").param("size", "5"));
+    }
+
+    private String etag(MockHttpServletRequestBuilder request) throws Exception {
+        String etag = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+        return etag;
+    }
+}
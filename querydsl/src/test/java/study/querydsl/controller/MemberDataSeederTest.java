@@ -0,0 +1,85 @@
+package study.querydsl.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 청크마다 커밋하므로 테스트 트랜잭션 대신, 시작 전 최대 id 보다 큰 팀/회원을 끝나면 지운다.
+// 청크 경계를 여러 번 지나도록 청크 크기를 7 로 줄인다.
+@SpringBootTest(properties = "seed.chunk-size=7")
+class MemberDataSeederTest {
+
+    private static final String MEMBERS_PER_TEAM_SQL =
+            "select count(m.member_id) from team t left join member m on m.team_id = t.id and m.team_name = t.name"
+                    + " where t.id > ? group by t.id order by t.id";
+
+    @Autowired
+    MemberDataSeeder memberDataSeeder;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    long maxTeamId;
+
+    @BeforeEach
+    public void before() {
+        maxTeamId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from team", Long.class);
+    }
+
+    @AfterEach
+    public void after() {
+        jdbcTemplate.update("delete from member where team_id > ?", maxTeamId);
+        jdbcTemplate.update("delete from team where id > ?", maxTeamId);
+    }
+
+    @Test
+    public void seedWithoutSkewSplitsMembersEvenly() {
+        MemberDataSeeder.SeedResult result = memberDataSeeder.seed(4, 40, 0);
+
+        assertThat(result.teams()).isEqualTo(4);
+        assertThat(result.members()).isEqualTo(40);
+        // 팀 이름(비정규화)까지 맞은 회원만 센다.
+        assertThat(membersPerTeam()).containsExactly(10L, 10L, 10L, 10L);
+    }
+
+    @Test
+    public void seedWithSkewConcentratesOnFirstTeams() {
+        memberDataSeeder.seed(4, 400, 1.0);
+
+        List<Long> counts = membersPerTeam();
+        assertThat(counts).hasSize(4);
+        assertThat(counts.stream().mapToLong(Long::longValue).sum()).isEqualTo(400);
+        // Zipf(1) 이면 팀별 비율이 1 : 1/2 : 1/3 : 1/4 (약 48%, 24%, 16%, 12%)
+        assertThat(counts.get(0)).isGreaterThan(counts.get(1)).isGreaterThan(counts.get(3) * 2);
+    }
+
+    @Test
+    public void teamPickerFollowsSkew() {
+        long[] uniform = pickCounts(new MemberDataSeeder.TeamPicker(10, 0), 10, 1_000);
+        assertThat(uniform).containsOnly(100L);
+
+        long[] skewed = pickCounts(new MemberDataSeeder.TeamPicker(10, 1.0), 10, 10_000);
+        // 1등 팀은 약 34%, 10등 팀은 약 3.4%
+        assertThat(skewed[0]).isBetween(3_000L, 3_800L);
+        assertThat(skewed[0]).isGreaterThan(skewed[9] * 5);
+    }
+
+    private static long[] pickCounts(MemberDataSeeder.TeamPicker picker, int teamCount, int members) {
+        long[] counts = new long[teamCount];
+        for (int i = 0; i < members; i++) {
+            counts[picker.pick(i)]++;
+        }
+        return counts;
+    }
+
+    private List<Long> membersPerTeam() {
+        return jdbcTemplate.queryForList(MEMBERS_PER_TEAM_SQL, Long.class, maxTeamId);
+    }
+}
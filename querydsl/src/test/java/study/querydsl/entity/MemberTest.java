@@ -3,12 +3,15 @@ package study.querydsl.entity;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @Transactional
 @SpringBootTest
 class MemberTest {
@@ -47,4 +50,46 @@ class MemberTest {
             System.out.println("-> member.team" + member.getTeam());
         }
     }
+
+    @Test
+    void changeTeamDoesNotLoadMembers() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        Member member1 = new Member("member1", 10, teamA);
+        em.persist(member1);
+        em.persist(new Member("member2", 20, teamA));
+        em.flush();
+        em.clear();
+
+        // 프록시 팀: 팀 이름을 넘기면 팀 자체도 로딩하지 않는다.
+        Team proxyA = em.getReference(Team.class, teamA.getId());
+        Member member3 = new Member("member3", 30);
+        member3.changeTeam(proxyA, "teamA");
+        em.persist(member3);
+        assertThat(Hibernate.isInitialized(proxyA)).isFalse();
+        assertThat(member3.getTeamName()).isEqualTo("teamA");
+
+        // 로딩된 팀이라도 members 컬렉션은 로딩하지 않는다.
+        Team loadedB = em.find(Team.class, teamB.getId());
+        Member findMember1 = em.find(Member.class, member1.getId());
+        findMember1.changeTeam(loadedB);
+        assertThat(Hibernate.isInitialized(loadedB.getMembers())).isFalse();
+        assertThat(findMember1.getTeamName()).isEqualTo("teamB");
+
+        em.flush();
+        em.clear();
+
+        // 이미 로딩된 컬렉션에는 메모리에서도 반영된다.
+        Team findA = em.find(Team.class, teamA.getId());
+        Team findB = em.find(Team.class, teamB.getId());
+        assertThat(findA.getMembers()).extracting("username").containsExactlyInAnyOrder("member2", "member3");
+        assertThat(findB.getMembers()).extracting("username").containsExactly("member1");
+
+        Member member2 = findA.getMembers().stream().filter(m -> m.getUsername().equals("member2")).findFirst().get();
+        member2.changeTeam(findB);
+        assertThat(findA.getMembers()).extracting("username").containsExactly("member3");
+        assertThat(findB.getMembers()).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+    }
 }
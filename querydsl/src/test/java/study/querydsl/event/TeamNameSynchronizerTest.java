@@ -0,0 +1,98 @@
+package study.querydsl.event;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.dto.BulkOperationResult;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.TeamBulkRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 이름 변경은 커밋 이후 별도 스레드에서 반영되므로 트랜잭션을 직접 커밋하고, 끝나면 지운다.
+// 벌크 이름 변경이 여러 청크로 나뉘도록 청크 크기를 1 로 줄인다.
+@SpringBootTest(properties = "member.bulk.chunk-size=1")
+class TeamNameSynchronizerTest {
+
+    private static final String COMMITTED_TEAM_NAMES_SQL =
+            "select team_name from member where username like 'sync%' order by username";
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TeamBulkRepository teamBulkRepository;
+
+    TransactionTemplate tx;
+    Long teamAId;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("syncTeamA");
+            Team teamB = new Team("syncTeamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            em.persist(new Member("sync1", 10, teamA));
+            em.persist(new Member("sync2", 20, teamA));
+            em.persist(new Member("sync3", 30, teamB));
+            teamAId = teamA.getId();
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'sync%'").executeUpdate();
+            em.createQuery("delete from Team t where t.name like 'sync%'").executeUpdate();
+        });
+    }
+
+    @Test
+    public void renamedTeamSyncedToMembersAfterCommit() throws InterruptedException {
+        assertThat(committedTeamNames()).containsExactly("syncTeamA", "syncTeamA", "syncTeamB");
+
+        tx.executeWithoutResult(status -> em.find(Team.class, teamAId).setName("syncTeamRenamed"));
+
+        // 이름 변경 트랜잭션은 회원을 건드리지 않고, 커밋 이후 team-name-sync 스레드가 맞춘다.
+        awaitCommittedTeamNames(List.of("syncTeamRenamed", "syncTeamRenamed", "syncTeamB"));
+    }
+
+    @Test
+    public void bulkRenamedTeamsSyncedToMembersAfterCommit() throws InterruptedException {
+        BulkOperationResult result = teamBulkRepository.bulkRenamePrefix("syncTeam", "syncBulk");
+
+        // 청크마다 커밋되고 BulkChangedEvent(Team) 가 발행된다. 어느 팀인지 모르므로 회원 전체를 맞춘다.
+        assertThat(result.rows()).isEqualTo(2);
+        assertThat(result.chunks()).isGreaterThan(1);
+        awaitCommittedTeamNames(List.of("syncBulkA", "syncBulkA", "syncBulkB"));
+    }
+
+    private void awaitCommittedTeamNames(List<String> expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!committedTeamNames().equals(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(committedTeamNames()).isEqualTo(expected);
+    }
+
+    private List<String> committedTeamNames() {
+        return jdbcTemplate.queryForList(COMMITTED_TEAM_NAMES_SQL, String.class);
+    }
+}
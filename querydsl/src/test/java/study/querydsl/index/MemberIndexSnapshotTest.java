@@ -0,0 +1,65 @@
+package study.querydsl.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberIndexSnapshotTest {
+
+    // member1~8, 나이 10~80, 홀수 번째는 팀 1, 짝수 번째는 팀 2, 마지막 회원은 팀 없음
+    MemberIndexSnapshot snapshot = MemberIndexSnapshot.build(
+            new long[]{1, 2, 3, 4, 5, 6, 7, 8},
+            new int[]{80, 70, 60, 50, 40, 30, 20, 10},
+            new long[]{1, 2, 1, 2, 1, 2, 1, MemberIndexSnapshot.NO_TEAM},
+            new String[]{"member1", "member2", "member3", "member4", "member5", "member6", "member7", "member8"});
+
+    @Test
+    public void ageRange() {
+        int[] rows = snapshot.match(null, null, 30, 60);
+        assertThat(ids(rows)).containsExactly(3L, 4L, 5L, 6L);
+    }
+
+    @Test
+    public void teamAndAge() {
+        int[] rows = snapshot.match(null, Set.of(1L), null, 50);
+        assertThat(ids(rows)).containsExactly(5L, 7L);
+    }
+
+    @Test
+    public void username() {
+        assertThat(ids(snapshot.match("member4", null, null, null))).containsExactly(4L);
+        assertThat(ids(snapshot.match("member4", Set.of(1L), null, null))).isEmpty();
+        assertThat(ids(snapshot.match("nobody", null, null, null))).isEmpty();
+    }
+
+    @Test
+    public void repeatedUsernameAndSeveralTeams() {
+        MemberIndexSnapshot shared = MemberIndexSnapshot.build(
+                new long[]{1, 2, 3, 4, 5},
+                new int[]{10, 20, 30, 40, 50},
+                new long[]{3, 1, 2, 1, 3},
+                new String[]{"same", "other", "same", null, "same"});
+
+        assertThat(shared.match("same", null, null, null)).containsExactly(0, 2, 4);
+        assertThat(shared.match("same", null, 20, null)).containsExactly(2, 4);
+        // 여러 팀의 행은 합친 뒤 행(= id) 순서로 돌려준다.
+        assertThat(shared.match(null, Set.of(1L, 3L), null, null)).containsExactly(0, 1, 3, 4);
+        assertThat(shared.username(3)).isNull();
+    }
+
+    @Test
+    public void noCondition() {
+        assertThat(snapshot.match(null, null, null, null)).hasSize(8);
+        assertThat(snapshot.teamId(7)).isEqualTo(MemberIndexSnapshot.NO_TEAM);
+    }
+
+    private long[] ids(int[] rows) {
+        long[] ids = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            ids[i] = snapshot.id(rows[i]);
+        }
+        return ids;
+    }
+}
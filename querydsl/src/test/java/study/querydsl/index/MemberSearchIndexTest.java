@@ -0,0 +1,204 @@
+package study.querydsl.index;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+import study.querydsl.controller.MemberController;
+import study.querydsl.dto.CappedPage;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 인덱스는 커밋 이후 이벤트로 바뀌므로 트랜잭션을 직접 커밋하고, 끝나면 지운다.
+@SpringBootTest(properties = "member.search.index.enabled=true")
+class MemberSearchIndexTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MemberSearchIndex memberSearchIndex;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberController memberController;
+
+    TransactionTemplate tx;
+    Long teamAId;
+    Long teamBId;
+    Long member1Id;
+    Long member2Id;
+    Long member3Id;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("indexTeamA");
+            Team teamB = new Team("indexTeamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member1 = new Member("member1", 10, teamA);
+            Member member2 = new Member("member2", 20, teamA);
+            Member member3 = new Member("member3", 30, teamB);
+            em.persist(member1);
+            em.persist(member2);
+            em.persist(member3);
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+            member1Id = member1.getId();
+            member2Id = member2.getId();
+            member3Id = member3.getId();
+        });
+        memberSearchIndex.rebuild();
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.team.id in :teamIds")
+                    .setParameter("teamIds", List.of(teamAId, teamBId))
+                    .executeUpdate();
+            em.createQuery("delete from Team t where t.id in :teamIds")
+                    .setParameter("teamIds", List.of(teamAId, teamBId))
+                    .executeUpdate();
+        });
+        memberSearchIndex.rebuild();
+    }
+
+    @Test
+    public void deltaMergedOverSnapshot() {
+        assertThat(memberSearchIndex.stats().get("deltaSize")).isZero();
+
+        Long[] member4Id = new Long[1];
+        tx.executeWithoutResult(status -> {
+            Team teamA = em.find(Team.class, teamAId);
+            Member member4 = new Member("member4", 40, teamA);
+            em.persist(member4);
+            member4Id[0] = member4.getId();
+            em.find(Member.class, member1Id).setAge(15);
+            em.remove(em.find(Member.class, member2Id));
+            em.find(Member.class, member3Id).changeTeam(teamA);
+        });
+
+        // 재구성 없이 스냅샷 위에 델타(수정, 삭제, 팀 이동, 추가)를 덮어써서 답한다.
+        assertThat(memberSearchIndex.stats().get("deltaSize")).isEqualTo(4L);
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("indexTeamA");
+
+        List<MemberTeamDto> result = memberSearchIndex.search(condition).orElseThrow();
+        assertThat(result).extracting(MemberTeamDto::getMemberId).containsExactly(member1Id, member3Id, member4Id[0]);
+        assertThat(result).extracting(MemberTeamDto::getAge).containsExactly(15, 30, 40);
+        assertThat(result).extracting(MemberTeamDto::getTeamName).containsOnly("indexTeamA");
+
+        Page<MemberTeamDto> page = memberSearchIndex.searchPage(condition, PageRequest.of(1, 2)).orElseThrow();
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent()).extracting(MemberTeamDto::getMemberId).containsExactly(member4Id[0]);
+
+        // 재구성하면 델타는 스냅샷에 들어가고 결과는 같다.
+        memberSearchIndex.rebuild();
+        assertThat(memberSearchIndex.stats().get("deltaSize")).isZero();
+        assertThat(memberSearchIndex.search(condition).orElseThrow())
+                .extracting(MemberTeamDto::getMemberId).containsExactly(member1Id, member3Id, member4Id[0]);
+    }
+
+    @Test
+    public void rebuildCorrectsTeamNameWithoutEvent() {
+        // 엔티티 이벤트 없이 팀 이름이 바뀐 경우 (이벤트 유실과 같다)
+        tx.executeWithoutResult(status -> em.createNativeQuery("update team set name = 'indexTeamRenamed' where id = :id")
+                .setParameter("id", teamAId)
+                .executeUpdate());
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("indexTeamRenamed");
+        assertThat(memberSearchIndex.search(condition).orElseThrow()).isEmpty();
+
+        memberSearchIndex.rebuild();
+
+        List<MemberTeamDto> result = memberSearchIndex.search(condition).orElseThrow();
+        assertThat(result).extracting(MemberTeamDto::getMemberId).containsExactly(member1Id, member2Id);
+        assertThat(result).extracting(MemberTeamDto::getTeamName).containsOnly("indexTeamRenamed");
+    }
+
+    @Test
+    public void bulkChangeFallsBackToDbUntilRebuilt() throws InterruptedException {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("indexTeamA");
+        PageRequest pageable = PageRequest.of(0, 10);
+
+        // 재구성 스레드를 붙잡아 두고 stale 구간을 확인한다.
+        CountDownLatch release = new CountDownLatch(1);
+        memberSearchIndex.rebuildExecutor().execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try {
+            memberRepository.bulkAddAge(condition, 100);
+
+            assertThat(memberSearchIndex.search(condition)).isEmpty();
+            assertThat(memberSearchIndex.stats().get("ready")).isZero();
+            // v2/v3 는 DB 로 조회하므로 커밋된 벌크 변경이 보인다.
+            Page<MemberTeamDto> v2 = memberController.searchMemberV2(condition, pageable, webRequest());
+            assertThat(v2.getContent()).extracting(MemberTeamDto::getAge).containsExactly(110, 120);
+            Page<MemberTeamDto> v3 = memberController.searchMemberV3(condition, pageable,
+                    false, true, false, false, webRequest());
+            assertThat(v3.getContent()).extracting(MemberTeamDto::getAge).containsExactly(110, 120);
+        } finally {
+            release.countDown();
+        }
+
+        // 줄 서 있던 재구성이 끝나면 다시 인덱스로 답한다.
+        memberSearchIndex.rebuild();
+        assertThat(memberSearchIndex.stats().get("ready")).isEqualTo(1L);
+        assertThat(memberSearchIndex.search(condition).orElseThrow())
+                .extracting(MemberTeamDto::getAge).containsExactly(110, 120);
+    }
+
+    @Test
+    public void cappedV3KeepsResponseShapeWhenIndexAnswers() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("indexTeamA");
+        PageRequest pageable = PageRequest.of(0, 1);
+
+        // exactCount=false 는 인덱스로 답해도 CappedPage 로 응답한다. (인덱스의 개수는 정확하다)
+        Page<MemberTeamDto> capped = memberController.searchMemberV3(condition, pageable,
+                false, false, false, false, webRequest());
+        assertThat(capped).isInstanceOf(CappedPage.class);
+        assertThat(((CappedPage<MemberTeamDto>) capped).isTotalApproximate()).isFalse();
+        assertThat(capped.getTotalElements()).isEqualTo(2);
+        assertThat(capped.getContent()).extracting(MemberTeamDto::getMemberId).containsExactly(member1Id);
+
+        Page<MemberTeamDto> exact = memberController.searchMemberV3(condition, pageable,
+                false, true, false, false, webRequest());
+        assertThat(exact).isNotInstanceOf(CappedPage.class);
+        assertThat(exact.getTotalElements()).isEqualTo(2);
+    }
+
+    private static ServletWebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+    }
+}
@@ -0,0 +1,71 @@
+package study.querydsl.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlMetricsTest {
+
+    SqlMetrics sqlMetrics = new SqlMetrics(3);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void attributeStatementsToEndpointAndRepository() {
+        sqlMetrics.beginRequest("MemberController.searchMemberV3");
+        sqlMetrics.enterRepository("MemberRepositoryImpl.searchPageComplex");
+        sqlMetrics.recordStatement("select m.member_id from member m limit ?", 1_000_000);
+        sqlMetrics.recordRow();
+        sqlMetrics.recordRow();
+        sqlMetrics.exitRepository();
+        sqlMetrics.recordStatement("select count(m.member_id) from member m", 1_000_000);
+        sqlMetrics.endRequest();
+
+        Map<String, Object> operations = (Map<String, Object>) sqlMetrics.snapshot().get("operations");
+        Map<String, Long> endpoint = (Map<String, Long>) operations.get("MemberController.searchMemberV3");
+        Map<String, Long> repository = (Map<String, Long>) operations.get("MemberRepositoryImpl.searchPageComplex");
+
+        assertThat(endpoint.get("statements")).isEqualTo(2L);
+        assertThat(endpoint.get("rows")).isEqualTo(2L);
+        assertThat(repository.get("statements")).isEqualTo(1L);
+    }
+
+    @Test
+    public void detectNPlusOne() {
+        sqlMetrics.beginRequest("MemberController.searchMemberV1");
+        for (int i = 1; i <= 3; i++) {
+            sqlMetrics.recordStatement("select t.id, t.name from team t where t.id=" + i, 1_000);
+        }
+        sqlMetrics.endRequest();
+
+        List<?> incidents = (List<?>) sqlMetrics.snapshot().get("nPlusOneIncidents");
+        assertThat(incidents).hasSize(1);
+        assertThat(((SqlMetrics.NPlusOneIncident) incidents.get(0)).count()).isEqualTo(3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void batchAndBulkStatementsAreNotNPlusOne() {
+        sqlMetrics.beginRequest("MemberController.bulkInsert");
+        // JDBC 배치로 보낸 insert
+        for (int i = 0; i < 3; i++) {
+            sqlMetrics.recordBatch("insert into member (age, team_id, team_name, username, member_id) values (?, ?, ?, ?, ?)", 1_000);
+        }
+        // 청크마다 반복하는 벌크 문장
+        sqlMetrics.bulkOperation(() -> {
+            for (int i = 1; i <= 3; i++) {
+                sqlMetrics.recordStatement("update member set age=age+1 where member_id>" + i, 1_000);
+            }
+            return null;
+        });
+        sqlMetrics.endRequest();
+
+        assertThat((List<?>) sqlMetrics.snapshot().get("nPlusOneIncidents")).isEmpty();
+        // 실행 수와 DB 시간에는 그대로 잡힌다.
+        Map<String, Object> operations = (Map<String, Object>) sqlMetrics.snapshot().get("operations");
+        Map<String, Long> endpoint = (Map<String, Long>) operations.get("MemberController.bulkInsert");
+        assertThat(endpoint.get("statements")).isEqualTo(6L);
+    }
+}
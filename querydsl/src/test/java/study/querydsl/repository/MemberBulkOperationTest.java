@@ -0,0 +1,109 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.BulkOperationResult;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 청크가 여러 개로 나뉘도록 청크 크기를 2 로 줄인다.
+@SpringBootTest(properties = "member.bulk.chunk-size=2")
+@Transactional
+class MemberBulkOperationTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    List<Member> teamAMembers = new ArrayList<>();
+    Member other;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 5; i++) {
+            Member member = new Member("member" + i, 10 * (i + 1), teamA);
+            em.persist(member);
+            teamAMembers.add(member);
+        }
+        other = new Member("other", 10, teamB);
+        em.persist(other);
+        // flush 하지 않아도 벌크 연산 전에 반영된다.
+    }
+
+    @Test
+    public void bulkAddAge() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        BulkOperationResult result = memberRepository.bulkAddAge(condition, 1);
+
+        assertThat(result.rows()).isEqualTo(5);
+        assertThat(result.chunks()).isGreaterThanOrEqualTo(3);
+        // 영향받은 구간의 엔티티는 떼어내므로 다시 조회하면 DB 값을 읽는다.
+        assertThat(em.contains(teamAMembers.get(0))).isFalse();
+        assertThat(em.find(Member.class, teamAMembers.get(0).getId()).getAge()).isEqualTo(11);
+        assertThat(em.find(Member.class, teamAMembers.get(4).getId()).getAge()).isEqualTo(51);
+        assertThat(em.find(Member.class, other.getId()).getAge()).isEqualTo(10);
+    }
+
+    @Test
+    public void bulkAddAgeWithAgeRange() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(40);
+
+        BulkOperationResult result = memberRepository.bulkAddAge(condition, 100);
+
+        // 나이가 바뀌어도 청크 경계를 id 로 잡으므로 같은 행을 두 번 올리지 않는다.
+        assertThat(result.rows()).isEqualTo(3);
+        assertThat(em.find(Member.class, teamAMembers.get(1).getId()).getAge()).isEqualTo(120);
+        assertThat(em.find(Member.class, teamAMembers.get(3).getId()).getAge()).isEqualTo(140);
+        assertThat(em.find(Member.class, teamAMembers.get(4).getId()).getAge()).isEqualTo(50);
+    }
+
+    @Test
+    public void bulkDelete() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeLoe(30);
+
+        BulkOperationResult result = memberRepository.bulkDelete(condition);
+
+        assertThat(result.rows()).isEqualTo(4); // member0, member1, member2, other
+        assertThat(em.find(Member.class, teamAMembers.get(0).getId())).isNull();
+        assertThat(em.find(Member.class, teamAMembers.get(3).getId())).isNotNull();
+        assertThat(memberRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    public void bulkSyncTeamName() {
+        Team teamA = teamAMembers.get(0).getTeam();
+        teamA.setName("teamRenamed");
+        em.flush();
+
+        BulkOperationResult result = memberRepository.bulkSyncTeamName(teamA.getId());
+
+        assertThat(result.rows()).isEqualTo(5);
+        assertThat(em.find(Member.class, teamAMembers.get(0).getId()).getTeamName()).isEqualTo("teamRenamed");
+        assertThat(em.find(Member.class, other.getId()).getTeamName()).isEqualTo("teamB");
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamRenamed");
+        assertThat(memberRepository.searchDenormalized(condition)).hasSize(5);
+    }
+}
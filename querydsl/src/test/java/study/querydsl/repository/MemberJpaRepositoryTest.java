@@ -10,6 +10,7 @@ import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -45,6 +46,26 @@ class MemberJpaRepositoryTest {
         assertThat(result2).containsExactly(member);
     }
 
+    @Test
+    public void moveToTeam() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        Member member = new Member("member1", 10, teamA);
+        em.persist(member);
+
+        assertThat(memberJpaRepository.moveToTeam(member.getId(), teamB.getId())).isTrue();
+        assertThat(member.getTeam()).isSameAs(teamB);
+        assertThat(member.getTeamName()).isEqualTo("teamB");
+
+        // 없는 회원/팀이면 NPE 나 flush 시점의 FK 오류 대신 false
+        assertThat(memberJpaRepository.moveToTeam(-1L, teamA.getId())).isFalse();
+        assertThat(memberJpaRepository.moveToTeam(member.getId(), -1L)).isFalse();
+        assertThat(member.getTeam()).isSameAs(teamB);
+        em.flush();
+    }
+
     @Test
     public void searchTestByBuilder() {
         Team teamA = new Team("teamA");
@@ -98,4 +119,49 @@ class MemberJpaRepositoryTest {
 
         assertThat(result).extracting("username").containsExactly("member4");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void searchStreamTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        List<MemberTeamDto> result = new ArrayList<>();
+        long count = memberJpaRepository.searchStream(condition, 2, result::add);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(result).extracting("username").containsExactlyInAnyOrder("member3", "member4");
+    }
+
+    @Test
+    public void searchStreamKeepsCallersManagedEntities() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 1500; i++) {
+            em.persist(new Member("member" + i, i % 100, teamA));
+        }
+        Member changed = new Member("changed", 10, teamA);
+        em.persist(changed);
+        em.flush();
+        // flush 하지 않은 변경을 남긴 채로 같은 트랜잭션에서 스트리밍한다.
+        changed.setAge(99);
+
+        long count = memberJpaRepository.searchStream(new MemberSearchCondition(), 100, dto -> {
+        });
+
+        assertThat(count).isEqualTo(1501);
+        assertThat(em.contains(changed)).isTrue();
+        em.flush();
+        em.clear();
+        assertThat(em.find(Member.class, changed.getId()).getAge()).isEqualTo(99);
+    }
+}
@@ -8,15 +8,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.CappedPage;
+import study.querydsl.dto.InvalidCursorException;
+import study.querydsl.dto.MemberCursorPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.support.UnsupportedSortException;
 
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static study.querydsl.entity.QMember.member;
 
 @SpringBootTest
@@ -97,6 +104,218 @@ class MemberRepositoryTest {
         assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
     }
 
+    @Test
+    public void searchWithTemplateTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(35);
+        condition.setAgeLoe(40);
+        condition.setTeamName("teamB");
+
+        // 같은 모양의 조건은 캐시된 JPQL 을 재사용하고, 값만 새로 바인딩된다.
+        assertThat(memberRepository.searchWithTemplate(condition)).extracting("username").containsExactly("member4");
+        condition.setAgeGoe(25);
+        assertThat(memberRepository.searchWithTemplate(condition)).extracting("username").containsExactly("member3", "member4");
+
+        Page<MemberTeamDto> page = memberRepository.searchPageWithTemplate(new MemberSearchCondition(), PageRequest.of(0, 3));
+        assertThat(page.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(page.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    public void searchPageSortTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // 같은 팀 안에서는 member.id 순서로 고정된다.
+        PageRequest byTeamDesc = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "teamName"));
+        assertThat(memberRepository.searchPageComplex(condition, byTeamDesc).getContent())
+                .extracting("username").containsExactly("member3", "member4", "member1");
+        assertThat(memberRepository.searchPageDeferredJoin(condition, byTeamDesc).getContent())
+                .extracting("username").containsExactly("member3", "member4", "member1");
+
+        PageRequest byAgeDesc = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "age"));
+        assertThat(memberRepository.searchSlice(condition, byAgeDesc).getContent())
+                .extracting("username").containsExactly("member4", "member3");
+
+        // 템플릿/윈도우 페이징도 같은 정렬을 따른다.
+        assertThat(memberRepository.searchPageWithTemplate(condition, byTeamDesc).getContent())
+                .extracting("username").containsExactly("member3", "member4", "member1");
+        assertThat(memberRepository.searchPageWindow(condition, byAgeDesc).getContent())
+                .extracting("username").containsExactly("member4", "member3");
+
+        PageRequest unsupported = PageRequest.of(0, 2, Sort.by("team.members"));
+        assertThatThrownBy(() -> memberRepository.searchPageComplex(condition, unsupported))
+                .isInstanceOf(UnsupportedSortException.class);
+        assertThatThrownBy(() -> memberRepository.searchPageWithTemplate(condition, unsupported))
+                .isInstanceOf(UnsupportedSortException.class);
+        assertThatThrownBy(() -> memberRepository.searchPageWindow(condition, unsupported))
+                .isInstanceOf(UnsupportedSortException.class);
+    }
+
+    @Test
+    public void searchDenormalizedTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 6; i++) {
+            em.persist(new Member("member" + i, 10 * i, i % 2 == 0 ? teamA : teamB));
+        }
+        em.persist(new Member("noTeam", 20));
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(20);
+
+        // 조인 경로와 같은 결과
+        List<MemberTeamDto> denormalized = memberRepository.searchDenormalized(condition);
+        assertThat(denormalized).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(memberRepository.search(condition));
+        assertThat(denormalized).extracting("teamName").containsOnly("teamB");
+
+        Page<MemberTeamDto> page = memberRepository.searchPageDenormalized(condition,
+                PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "age")));
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).extracting("username").containsExactly("member5");
+    }
+
+    @Test
+    public void searchPageDeferredJoinTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        Page<MemberTeamDto> result = memberRepository.searchPageDeferredJoin(new MemberSearchCondition(), PageRequest.of(1, 2));
+
+        assertThat(result.getContent()).extracting("username").containsExactly("member3", "member4");
+        assertThat(result.getContent()).extracting("teamName").containsExactly("teamB", "teamB");
+        assertThat(result.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    public void searchPageWindowTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, null));
+        em.flush();
+
+        Page<MemberTeamDto> result = memberRepository.searchPageWindow(new MemberSearchCondition(), PageRequest.of(1, 3));
+        assertThat(result.getContent()).extracting("username").containsExactly("member4");
+        assertThat(result.getContent().get(0).getTeamId()).isNull();
+        assertThat(result.getTotalElements()).isEqualTo(4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        Page<MemberTeamDto> beyond = memberRepository.searchPageWindow(condition, PageRequest.of(5, 3));
+        assertThat(beyond.getContent()).isEmpty();
+        assertThat(beyond.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    public void searchPageCappedTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 1; i <= 4; i++) {
+            em.persist(new Member("member" + i, i * 10, teamA));
+        }
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // 상한(2) 너머에 행이 있으므로 정확히 세지 않고 하한값을 준다.
+        CappedPage<MemberTeamDto> capped = memberRepository.searchPageCapped(condition, PageRequest.of(0, 1), 2);
+        assertThat(capped.isTotalApproximate()).isTrue();
+        assertThat(capped.getTotalElements()).isEqualTo(3);
+        assertThat(capped.hasNext()).isTrue();
+
+        CappedPage<MemberTeamDto> exact = memberRepository.searchPageCapped(condition, PageRequest.of(0, 1), 10);
+        assertThat(exact.isTotalApproximate()).isFalse();
+        assertThat(exact.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    public void searchSliceTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 1; i <= 4; i++) {
+            em.persist(new Member("member" + i, i * 10, teamA));
+        }
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        Slice<MemberTeamDto> first = memberRepository.searchSlice(condition, PageRequest.of(0, 3));
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(first.hasNext()).isTrue();
+
+        Slice<MemberTeamDto> last = memberRepository.searchSlice(condition, PageRequest.of(1, 3));
+        assertThat(last.getContent()).extracting("username").containsExactly("member4");
+        assertThat(last.hasNext()).isFalse();
+    }
+
+    @Test
+    public void searchByCursorTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        MemberCursorPage first = memberRepository.searchByCursor(condition, null, 3);
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(first.isHasNext()).isTrue();
+
+        MemberCursorPage second = memberRepository.searchByCursor(condition, first.getNextCursor(), 3);
+        assertThat(second.getContent()).extracting("username").containsExactly("member4");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void searchByInvalidCursor() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        // 리포지토리 프록시를 지나도 예외 변환 없이 그대로 올라온다.
+        assertThatThrownBy(() -> memberRepository.searchByCursor(condition, "not-a-cursor!", 3))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> memberRepository.searchByCursor(condition, MemberCursorPage.encodeCursor(1L) + "AA", 3))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
     @Test
     public void querydslPredicateExecutorTest() {
         //데이터 넣는 로직..
@@ -0,0 +1,166 @@
+package study.querydsl.repository;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.CappedPage;
+import study.querydsl.dto.MemberCursorPage;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 검색 조건 모양(16가지)마다 실제로 실행된 SQL 을 잡아서 H2 EXPLAIN 으로 실행 계획을 확인한다.
+ * 목록 조회뿐 아니라 페이지 컨텐츠(offset), count, 커서(keyset) 쿼리도 확인한다.
+ * 조건이 하나라도 있는 모양이 테이블 전체를 읽으면(tableScan) 실패한다. (인덱스나 쿼리 모양이 바뀌어 인덱스를 못 타게 된 경우)
+ */
+@SpringBootTest
+@Transactional
+@Import(SearchIndexPlanTest.SqlCaptureConfig.class)
+class SearchIndexPlanTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    SqlCapture sqlCapture;
+
+    @BeforeEach
+    public void before() {
+        Team[] teams = new Team[10];
+        for (int i = 0; i < teams.length; i++) {
+            teams[i] = new Team("team" + i);
+            em.persist(teams[i]);
+        }
+        for (int i = 0; i < 200; i++) {
+            em.persist(new Member("member" + i, i % 100, teams[i % teams.length]));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void everySearchShapeUsesAnIndex() {
+        assertEveryShapeUsesAnIndex(1, condition -> memberRepository.search(condition));
+    }
+
+    @Test
+    public void everyPagedShapeUsesAnIndex() {
+        // 컨텐츠(offset/limit) + count 두 쿼리
+        assertEveryShapeUsesAnIndex(2, condition -> memberRepository.searchPageComplex(condition, PageRequest.of(1, 1)));
+    }
+
+    @Test
+    public void everyKeysetShapeUsesAnIndex() {
+        // 커서가 있으면 member.id > ? 조건이 붙는다.
+        String cursor = MemberCursorPage.encodeCursor(0L);
+        assertEveryShapeUsesAnIndex(1, condition -> memberRepository.searchByCursor(condition, cursor, 5));
+    }
+
+    @Test
+    public void teamNameSortUsesDenormalizedMemberColumn() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("team3");
+        condition.setAgeGoe(90);
+        PageRequest byTeamName = PageRequest.of(0, 5, Sort.by("teamName"));
+
+        sqlCapture.selects.clear();
+        memberRepository.searchPageComplex(condition, byTeamName);
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sqlCapture.selects.get(0), String.class);
+        String orderBy = plan.substring(plan.toUpperCase().lastIndexOf("ORDER BY"));
+
+        // 조인한 team.name 이 아니라 member.team_name 으로 정렬하고, 조건은 인덱스로 읽는다.
+        assertThat(plan).as("plan=%s", plan).doesNotContainIgnoringCase("tableScan");
+        assertThat(orderBy).as("plan=%s", plan)
+                .containsIgnoringCase("TEAM_NAME")
+                .doesNotContainPattern("(?i)\\.\"?NAME\\b");
+
+        // 지연 조인의 id 쿼리는 팀명 정렬이어도 team 을 조인하지 않는다.
+        sqlCapture.selects.clear();
+        memberRepository.searchPageDeferredJoin(condition, byTeamName);
+        assertThat(sqlCapture.selects.get(0)).doesNotContainIgnoringCase("join");
+    }
+
+    @Test
+    public void cappedProbeDoesNotJoinTeam() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("team3");
+
+        sqlCapture.selects.clear();
+        CappedPage<MemberTeamDto> page = memberRepository.searchPageCapped(condition, PageRequest.of(0, 5), 10);
+
+        // 컨텐츠 + probe, team3 회원은 20 명이므로 상한(10)을 넘는다.
+        assertThat(page.isTotalApproximate()).isTrue();
+        assertThat(sqlCapture.selects).hasSize(2);
+        String probe = sqlCapture.selects.get(1);
+        assertThat(probe).doesNotContainIgnoringCase("join");
+        assertThat(jdbcTemplate.queryForObject("EXPLAIN " + probe, String.class)).doesNotContainIgnoringCase("tableScan");
+    }
+
+    private void assertEveryShapeUsesAnIndex(int statementsPerSearch, Consumer<MemberSearchCondition> search) {
+        // shape 0 (조건 없음)은 전체 조회이므로 제외
+        for (int shape = 1; shape < 16; shape++) {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            if ((shape & 1) != 0) condition.setUsername("member7");
+            if ((shape & 2) != 0) condition.setTeamName("team3");
+            if ((shape & 4) != 0) condition.setAgeGoe(90);
+            if ((shape & 8) != 0) condition.setAgeLoe(95);
+
+            sqlCapture.selects.clear();
+            search.accept(condition);
+            assertThat(sqlCapture.selects).as("shape=%d", shape).hasSize(statementsPerSearch);
+
+            for (String sql : sqlCapture.selects) {
+                String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+                assertThat(plan)
+                        .as("shape=%d, condition=%s%nplan=%s", shape, condition, plan)
+                        .doesNotContainIgnoringCase("tableScan");
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class SqlCaptureConfig {
+
+        @Bean
+        SqlCapture sqlCapture() {
+            return new SqlCapture();
+        }
+    }
+
+    // p6spy 리스너로 실행된 select 를 값이 채워진 형태로 잡아 둔다.
+    static class SqlCapture extends SimpleJdbcEventListener {
+
+        final List<String> selects = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+            String sql = statementInformation.getSqlWithValues().trim();
+            if (sql.regionMatches(true, 0, "select", 0, "select".length())) {
+                selects.add(sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package study.querydsl.repository;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.TeamMembersDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.UnsupportedSortException;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 회원 수는 커밋 직전에 반영되는 team.member_count 를 읽으므로 트랜잭션을 직접 커밋하고, 끝나면 지운다.
+@SpringBootTest
+@Import(TeamQueryRepositoryTest.StatementCounterConfig.class)
+class TeamQueryRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TeamQueryRepository teamQueryRepository;
+    @Autowired
+    StatementCounter statementCounter;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    final List<Long> teamIds = new ArrayList<>();
+
+    @AfterEach
+    public void after() {
+        if (teamIds.isEmpty()) {
+            return;
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.team.id in :teamIds")
+                    .setParameter("teamIds", teamIds)
+                    .executeUpdate();
+            em.createQuery("delete from Team t where t.id in :teamIds")
+                    .setParameter("teamIds", teamIds)
+                    .executeUpdate();
+        });
+    }
+
+    @Test
+    public void membersAreBoundedPerTeam() {
+        persistTeams(3, 5);
+
+        Page<TeamMembersDto> page = teamQueryRepository.findTeamsWithMembers(PageRequest.of(0, 10), 2);
+
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent()).extracting("name").containsExactly("team0", "team1", "team2");
+        TeamMembersDto first = page.getContent().get(0);
+        assertThat(first.getMembers()).extracting("username").containsExactly("team0-member0", "team0-member1");
+        // 회원은 2건만 읽어도 전체 회원 수는 유지되는 집계에서 가져온다.
+        assertThat(first.getMemberCount()).isEqualTo(5);
+        assertThat(first.isMembersTruncated()).isTrue();
+    }
+
+    @Test
+    public void rejectSort() {
+        // 정렬을 무시하고 id 순으로 돌려주지 않는다.
+        assertThatThrownBy(() -> teamQueryRepository.findTeamsWithMembers(PageRequest.of(0, 10, Sort.by("name")), 2))
+                .isInstanceOf(UnsupportedSortException.class);
+    }
+
+    @Test
+    public void statementCountDoesNotGrowWithTeams() {
+        persistTeams(50, 4);
+
+        int small = countStatements(PageRequest.of(0, 5));
+        int large = countStatements(PageRequest.of(0, 40));
+
+        // 팀 페이지 1 + 회원 IN 쿼리 1 + count 1 (팀 수와 상관없이 일정)
+        assertThat(small).isEqualTo(3);
+        assertThat(large).isEqualTo(small);
+    }
+
+    private int countStatements(PageRequest pageRequest) {
+        statementCounter.count.set(0);
+        Page<TeamMembersDto> page = teamQueryRepository.findTeamsWithMembers(pageRequest, 10);
+        assertThat(page.getContent()).allSatisfy(team -> assertThat(team.getMembers()).hasSize(4));
+        return statementCounter.count.get();
+    }
+
+    private void persistTeams(int teamCount, int membersPerTeam) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < teamCount; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                teamIds.add(team.getId());
+                for (int j = 0; j < membersPerTeam; j++) {
+                    em.persist(new Member("team" + i + "-member" + j, j, team));
+                }
+            }
+        });
+    }
+
+    @TestConfiguration
+    static class StatementCounterConfig {
+
+        @Bean
+        StatementCounter statementCounter() {
+            return new StatementCounter();
+        }
+    }
+
+    // p6spy 리스너로 실행된 select 수를 센다.
+    static class StatementCounter extends SimpleJdbcEventListener {
+
+        final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+            String sql = statementInformation.getSqlWithValues().trim();
+            if (sql.regionMatches(true, 0, "select", 0, "select".length())) {
+                count.incrementAndGet();
+            }
+        }
+    }
+}
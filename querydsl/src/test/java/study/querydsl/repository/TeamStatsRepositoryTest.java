@@ -0,0 +1,167 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.dto.TeamStatsReconciliation;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.UnsupportedSortException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 집계는 커밋 직전에 반영되므로 롤백하는 @Transactional 대신 트랜잭션을 직접 커밋하고, 끝나면 지운다.
+@SpringBootTest
+class TeamStatsRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    TeamStatsRepository teamStatsRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    TransactionTemplate tx;
+    Long teamAId;
+    Long teamBId;
+    Long member10Id;
+    Long member20Id;
+    Long member30Id;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("statsTeamA");
+            Team teamB = new Team("statsTeamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member10 = new Member("member10", 10, teamA);
+            Member member20 = new Member("member20", 20, teamA);
+            Member member30 = new Member("member30", 30, teamA);
+            em.persist(member10);
+            em.persist(member20);
+            em.persist(member30);
+            em.persist(new Member("member40", 40, teamB));
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+            member10Id = member10.getId();
+            member20Id = member20.getId();
+            member30Id = member30.getId();
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.team.id in :teamIds")
+                    .setParameter("teamIds", List.of(teamAId, teamBId))
+                    .executeUpdate();
+            em.createQuery("delete from Team t where t.id in :teamIds")
+                    .setParameter("teamIds", List.of(teamAId, teamBId))
+                    .executeUpdate();
+        });
+    }
+
+    @Test
+    public void maintainedOnInsert() {
+        assertStats(teamAId, 3, 60, 10, 30);
+        assertStats(teamBId, 1, 40, 40, 40);
+        assertThat(stats(teamAId).getAverageAge()).isEqualTo(20.0);
+    }
+
+    @Test
+    public void maintainedOnDeleteTeamChangeAndAgeChange() {
+        tx.executeWithoutResult(status -> {
+            em.remove(em.find(Member.class, member10Id));
+            em.find(Member.class, member20Id).setAge(25);
+            em.find(Member.class, member30Id).changeTeam(em.getReference(Team.class, teamBId), "statsTeamB");
+        });
+
+        // 최솟값/최댓값은 빠진 회원이 있으면 다시 구한다.
+        assertStats(teamAId, 1, 25, 25, 25);
+        assertStats(teamBId, 2, 70, 30, 40);
+    }
+
+    @Test
+    public void rolledBackWithTransaction() {
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("member50", 50, em.getReference(Team.class, teamAId)));
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        assertStats(teamAId, 3, 60, 10, 30);
+    }
+
+    @Test
+    public void maintainedOnBulkOperations() {
+        MemberSearchCondition teamB = new MemberSearchCondition();
+        teamB.setTeamName("statsTeamB");
+        memberRepository.bulkAddAge(teamB, 1);
+
+        MemberSearchCondition youngInTeamA = new MemberSearchCondition();
+        youngInTeamA.setTeamName("statsTeamA");
+        youngInTeamA.setAgeLoe(15);
+        memberRepository.bulkDelete(youngInTeamA);
+
+        assertStats(teamAId, 2, 50, 20, 30);
+        assertStats(teamBId, 1, 41, 41, 41);
+    }
+
+    @Test
+    public void rejectSort() {
+        assertThatThrownBy(() -> teamStatsRepository.findTeamStats(PageRequest.of(0, 100, Sort.by("memberCount"))))
+                .isInstanceOf(UnsupportedSortException.class);
+    }
+
+    @Test
+    public void reconcileFindsAndRepairsDrift() {
+        // 벌크 SQL 로 직접 바꾸면 집계가 어긋난다.
+        tx.executeWithoutResult(status -> em.createNativeQuery("update team set member_count = 99 where id = :id")
+                .setParameter("id", teamAId)
+                .executeUpdate());
+
+        TeamStatsReconciliation check = teamStatsRepository.reconcile(false);
+        assertThat(check.mismatchedTeamIds()).contains(teamAId).doesNotContain(teamBId);
+        assertThat(check.repaired()).isFalse();
+        assertThat(stats(teamAId).getMemberCount()).isEqualTo(99);
+
+        TeamStatsReconciliation repair = teamStatsRepository.reconcile(true);
+        assertThat(repair.repaired()).isTrue();
+        assertStats(teamAId, 3, 60, 10, 30);
+        assertThat(teamStatsRepository.reconcile(false).mismatchedTeamIds()).doesNotContain(teamAId);
+    }
+
+    private void assertStats(Long teamId, long memberCount, long ageSum, Integer minAge, Integer maxAge) {
+        TeamStatsDto stats = stats(teamId);
+        assertThat(stats.getMemberCount()).isEqualTo(memberCount);
+        assertThat(stats.getAgeSum()).isEqualTo(ageSum);
+        assertThat(stats.getMinAge()).isEqualTo(minAge);
+        assertThat(stats.getMaxAge()).isEqualTo(maxAge);
+    }
+
+    private TeamStatsDto stats(Long teamId) {
+        return teamStatsRepository.findTeamStats(PageRequest.of(0, 100)).getContent().stream()
+                .filter(dto -> dto.getTeamId().equals(teamId))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,171 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.cache.MemberSearchCache;
+import study.querydsl.dto.BulkOperationResult;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 청크마다 커밋되는지 보려면 테스트 트랜잭션에 합류하면 안 되므로, 커밋하고 끝나면 지운다.
+@SpringBootTest(properties = {"member.bulk.chunk-size=2", "member.search.cache.enabled=true"})
+class ChunkedBulkExecutorTest {
+
+    private static final String COMMITTED_SHIFTED_SQL =
+            "select count(*) from member where username like 'chunk%' and age >= 100";
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ChunkedBulkExecutor chunkedBulkExecutor;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberSearchCache memberSearchCache;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team team = new Team("chunkTeam");
+            em.persist(team);
+            for (int i = 0; i < 5; i++) {
+                em.persist(new Member("chunk" + i, i, team));
+            }
+        });
+        memberSearchCache.invalidateAll();
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'chunk%'").executeUpdate();
+            em.createQuery("delete from Team t where t.name = 'chunkTeam'").executeUpdate();
+        });
+    }
+
+    @Test
+    public void eachChunkCommitsBeforeTheNext() {
+        List<Long> committedBeforeChunk = new ArrayList<>();
+
+        BulkOperationResult result = chunkedBulkExecutor.execute("shift", Member.class, this::boundary,
+                (lastId, upperId) -> {
+                    committedBeforeChunk.add(committedShifted());
+                    return shift(lastId, upperId);
+                });
+
+        assertThat(result.rows()).isEqualTo(5);
+        assertThat(result.chunks()).isEqualTo(3);
+        // 다른 커넥션에서 보면 앞선 청크는 이미 커밋되어 있다. (한 트랜잭션이 끝까지 잠그고 있지 않다)
+        assertThat(committedBeforeChunk).containsExactly(0L, 2L, 4L);
+        assertThat(committedShifted()).isEqualTo(5L);
+    }
+
+    @Test
+    public void failedChunkKeepsEarlierChunks() {
+        AtomicInteger chunk = new AtomicInteger();
+
+        assertThatThrownBy(() -> chunkedBulkExecutor.execute("shift", Member.class, this::boundary,
+                (lastId, upperId) -> {
+                    long rows = shift(lastId, upperId);
+                    if (chunk.incrementAndGet() == 3) {
+                        throw new IllegalStateException("third chunk fails");
+                    }
+                    return rows;
+                }))
+                .isInstanceOf(IllegalStateException.class);
+
+        // 실패한 청크만 롤백된다.
+        assertThat(committedShifted()).isEqualTo(4L);
+    }
+
+    @Test
+    public void bulkOperationInvalidatesSearchCacheAfterCommit() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("chunkTeam");
+        AtomicInteger loads = new AtomicInteger();
+
+        List<Integer> before = cachedAges(condition, loads);
+        assertThat(cachedAges(condition, loads)).isEqualTo(before);
+        assertThat(loads.get()).isEqualTo(1);
+
+        memberRepository.bulkAddAge(condition, 100);
+
+        // 커밋 이후에 무효화되었으므로 다시 조회하고, 커밋된 값을 읽는다.
+        assertThat(cachedAges(condition, loads)).containsExactly(100, 101, 102, 103, 104);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private List<Integer> cachedAges(MemberSearchCondition condition, AtomicInteger loads) {
+        return memberSearchCache.get("v1", condition, null, () -> {
+            loads.incrementAndGet();
+            return memberRepository.search(condition).stream()
+                    .map(MemberTeamDto::getAge)
+                    .sorted()
+                    .toList();
+        });
+    }
+
+    // lastId 다음부터 chunkSize 번째 회원의 id
+    private Long boundary(Long lastId, int chunkSize) {
+        TypedQuery<Long> query = em.createQuery("select m.id from Member m where m.username like 'chunk%'"
+                + (lastId == null ? "" : " and m.id > :lastId") + " order by m.id", Long.class);
+        if (lastId != null) {
+            query.setParameter("lastId", lastId);
+        }
+        return query.setFirstResult(chunkSize - 1)
+                .setMaxResults(1)
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    private long shift(Long lastId, Long upperId) {
+        Query query = em.createQuery("update Member m set m.age = m.age + 100 where m.username like 'chunk%'"
+                + (lastId == null ? "" : " and m.id > :lastId")
+                + (upperId == null ? "" : " and m.id <= :upperId"));
+        if (lastId != null) {
+            query.setParameter("lastId", lastId);
+        }
+        if (upperId != null) {
+            query.setParameter("upperId", upperId);
+        }
+        return query.executeUpdate();
+    }
+
+    // 청크 트랜잭션과 다른 커넥션으로 읽으므로 커밋된 값만 보인다.
+    private long committedShifted() {
+        return CompletableFuture.supplyAsync(() -> jdbcTemplate.queryForObject(COMMITTED_SHIFTED_SQL, Long.class)).join();
+    }
+}
@@ -0,0 +1,77 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+import study.querydsl.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@SpringBootTest
+@Transactional
+class CountQueryBuilderTest {
+
+    @Autowired
+    EntityManager em;
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, null));
+    }
+
+    @Test
+    public void dropUnusedJoin() {
+        JPAQuery<Long> query = CountQueryBuilder.count(queryFactory, member, member.id)
+                .leftJoin(member.team, team)
+                .where(member.age.goe(20), null)
+                .build();
+
+        assertThat(query.toString()).doesNotContain("join");
+        assertThat(query.fetchOne()).isEqualTo(3L);
+    }
+
+    @Test
+    public void keepJoinUsedByPredicate() {
+        JPAQuery<Long> query = CountQueryBuilder.count(queryFactory, member, member.id)
+                .leftJoin(member.team, team)
+                .where(team.name.eq("teamA"))
+                .build();
+
+        assertThat(query.toString()).contains("left join");
+        assertThat(query.fetchOne()).isEqualTo(2L);
+    }
+
+    @Test
+    public void keepJoinThatUsedJoinDependsOn() {
+        QMember teammate = new QMember("teammate");
+        // 조건은 teammate 만 참조하지만, teammate 는 team 에서 출발하므로 member.team join 도 남아야 한다.
+        // (teammate 조건이 팀마다 한 명만 고르므로 행 수는 늘지 않는다)
+        JPAQuery<Long> query = CountQueryBuilder.count(queryFactory, member, member.id)
+                .leftJoin(member.team, team)
+                .leftJoin(team.members, teammate)
+                .where(teammate.username.eq("member1"))
+                .build();
+
+        assertThat(query.toString()).contains("left join member1.team", "left join team.members");
+        assertThat(query.fetchOne()).isEqualTo(2L);
+    }
+}
@@ -0,0 +1,54 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ParallelPageQueryExecutorTest {
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    public void mergeContentAndCount() {
+        ParallelPageQueryExecutor executor = new ParallelPageQueryExecutor(transactionManager, 2, 4, 3000);
+
+        Page<String> page = executor.execute(PageRequest.of(0, 2),
+                () -> List.of("member1", "member2"),
+                () -> 4L);
+
+        assertThat(page.getContent()).containsExactly("member1", "member2");
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(executor.stats().get("requests")).isEqualTo(1L);
+        executor.destroy();
+    }
+
+    @Test
+    public void timeout() {
+        ParallelPageQueryExecutor executor = new ParallelPageQueryExecutor(transactionManager, 2, 4, 100);
+
+        assertThatThrownBy(() -> executor.execute(PageRequest.of(0, 2),
+                () -> List.of("member1"),
+                () -> {
+                    try {
+                        Thread.sleep(2000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return 1L;
+                }))
+                .isInstanceOf(QueryTimeoutException.class);
+        assertThat(executor.stats().get("timeouts")).isEqualTo(1L);
+        executor.destroy();
+    }
+}